@@ -17,6 +17,7 @@ public class CorsConfig {
         configuration.setAllowedOrigins(Arrays.asList("*")); // Em produção, especificar origens permitidas
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "Retry-After", "Idempotent-Replayed")); // Legíveis pelo front-end
         configuration.setAllowCredentials(false);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,6 +1,10 @@
 package com.educacaofinanceira.config;
 
+import com.educacaofinanceira.security.FamilyRateLimitFilter;
+import com.educacaofinanceira.security.IdempotencyFilter;
 import com.educacaofinanceira.security.JwtAuthenticationFilter;
+import com.educacaofinanceira.security.PasswordCostGovernor;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,10 +26,13 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final FamilyRateLimitFilter familyRateLimitFilter;
+    private final IdempotencyFilter idempotencyFilter;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // BCrypt com strength 12
+    public PasswordEncoder passwordEncoder(PasswordCostGovernor passwordCostGovernor) {
+        // BCrypt com o custo do PasswordCostGovernor (fixo ou calibrado na inicialização)
+        return new BCryptPasswordEncoder(passwordCostGovernor.getCost());
     }
 
     @Bean
@@ -40,11 +47,15 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable()) // Desabilita CSRF (API stateless)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Fim de respostas em streaming (já autorizadas)
                         .requestMatchers("/api/auth/**").permitAll() // Permite endpoints de auth sem autenticação
                         .requestMatchers("/api/gamification/debug/**").permitAll() // DEBUG: Permite desbloquear badges sem auth
+                        .requestMatchers("/actuator/health").permitAll() // Health check
                         .anyRequest().authenticated() // Todo resto requer autenticação
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(familyRateLimitFilter, JwtAuthenticationFilter.class) // Limite por família (precisa do principal)
+                .addFilterAfter(idempotencyFilter, FamilyRateLimitFilter.class); // Idempotency-Key (escopo por usuário)
 
         return http.build();
     }
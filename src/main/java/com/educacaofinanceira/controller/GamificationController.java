@@ -2,7 +2,7 @@ package com.educacaofinanceira.controller;
 
 import com.educacaofinanceira.dto.request.UnlockBadgeDebugRequest;
 import com.educacaofinanceira.dto.response.GamificationResponse;
-import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import com.educacaofinanceira.service.GamificationService;
 import com.educacaofinanceira.util.SecurityHelper;
 import jakarta.validation.Valid;
@@ -27,7 +27,7 @@ public class GamificationController {
     @GetMapping
     public ResponseEntity<GamificationResponse> getGamification(
             @RequestParam(required = false) UUID childId) {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
 
         // Se childId não for fornecido, assume que é o próprio usuário
         UUID targetChildId = (childId != null) ? childId : user.getId();
@@ -1,7 +1,7 @@
 package com.educacaofinanceira.controller;
 
 import com.educacaofinanceira.dto.response.NotificationResponse;
-import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import com.educacaofinanceira.service.NotificationService;
 import com.educacaofinanceira.util.SecurityHelper;
 import lombok.RequiredArgsConstructor;
@@ -24,7 +24,7 @@ public class NotificationController {
      */
     @GetMapping
     public ResponseEntity<List<NotificationResponse>> getNotifications() {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
         List<NotificationResponse> notifications = notificationService.getUserNotifications(user.getId());
         return ResponseEntity.ok(notifications);
     }
@@ -43,7 +43,7 @@ public class NotificationController {
      */
     @PatchMapping("/read-all")
     public ResponseEntity<Void> markAllAsRead() {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
         notificationService.markAllAsRead(user.getId());
         return ResponseEntity.ok().build();
     }
@@ -53,7 +53,7 @@ public class NotificationController {
      */
     @GetMapping("/unread-count")
     public ResponseEntity<Long> countUnread() {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
         Long count = notificationService.countUnread(user.getId());
         return ResponseEntity.ok(count);
     }
@@ -3,8 +3,8 @@ package com.educacaofinanceira.controller;
 import com.educacaofinanceira.dto.request.CreateRedemptionRequest;
 import com.educacaofinanceira.dto.request.RejectRedemptionRequest;
 import com.educacaofinanceira.dto.response.RedemptionResponse;
-import com.educacaofinanceira.model.User;
 import com.educacaofinanceira.model.enums.RedemptionStatus;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import com.educacaofinanceira.service.RedemptionService;
 import com.educacaofinanceira.util.SecurityHelper;
 import jakarta.validation.Valid;
@@ -29,7 +29,7 @@ public class RedemptionController {
     @PostMapping
     public ResponseEntity<RedemptionResponse> requestRedemption(
             @Valid @RequestBody CreateRedemptionRequest request) {
-        User child = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser child = securityHelper.getAuthenticatedPrincipal();
         RedemptionResponse redemption = redemptionService.requestRedemption(request, child);
         return ResponseEntity.ok(redemption);
     }
@@ -41,7 +41,7 @@ public class RedemptionController {
     @GetMapping
     public ResponseEntity<List<RedemptionResponse>> getRedemptions(
             @RequestParam(required = false) RedemptionStatus status) {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
         List<RedemptionResponse> redemptions = redemptionService.getRedemptions(user, status);
         return ResponseEntity.ok(redemptions);
     }
@@ -51,7 +51,7 @@ public class RedemptionController {
      */
     @PostMapping("/{redemptionId}/approve")
     public ResponseEntity<RedemptionResponse> approveRedemption(@PathVariable UUID redemptionId) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         RedemptionResponse redemption = redemptionService.approveRedemption(redemptionId, parent);
         return ResponseEntity.ok(redemption);
     }
@@ -63,7 +63,7 @@ public class RedemptionController {
     public ResponseEntity<RedemptionResponse> rejectRedemption(
             @PathVariable UUID redemptionId,
             @Valid @RequestBody RejectRedemptionRequest request) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         RedemptionResponse redemption = redemptionService.rejectRedemption(
                 redemptionId, request.getRejectionReason(), parent);
         return ResponseEntity.ok(redemption);
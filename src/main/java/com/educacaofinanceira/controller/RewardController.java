@@ -2,7 +2,7 @@ package com.educacaofinanceira.controller;
 
 import com.educacaofinanceira.dto.request.CreateRewardRequest;
 import com.educacaofinanceira.dto.response.RewardResponse;
-import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import com.educacaofinanceira.service.RewardService;
 import com.educacaofinanceira.util.SecurityHelper;
 import jakarta.validation.Valid;
@@ -26,7 +26,7 @@ public class RewardController {
      */
     @PostMapping
     public ResponseEntity<RewardResponse> createReward(@Valid @RequestBody CreateRewardRequest request) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         RewardResponse reward = rewardService.createReward(request, parent);
         return ResponseEntity.ok(reward);
     }
@@ -38,7 +38,7 @@ public class RewardController {
     @GetMapping
     public ResponseEntity<List<RewardResponse>> getRewards(
             @RequestParam(required = false, defaultValue = "false") Boolean activeOnly) {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
         List<RewardResponse> rewards = rewardService.getRewards(user, activeOnly);
         return ResponseEntity.ok(rewards);
     }
@@ -48,7 +48,7 @@ public class RewardController {
      */
     @PatchMapping("/{rewardId}/toggle")
     public ResponseEntity<RewardResponse> toggleRewardStatus(@PathVariable UUID rewardId) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         RewardResponse reward = rewardService.toggleRewardStatus(rewardId, parent);
         return ResponseEntity.ok(reward);
     }
@@ -58,7 +58,7 @@ public class RewardController {
      */
     @DeleteMapping("/{rewardId}")
     public ResponseEntity<Void> deleteReward(@PathVariable UUID rewardId) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         rewardService.deleteReward(rewardId, parent);
         return ResponseEntity.noContent().build();
     }
@@ -3,7 +3,7 @@ package com.educacaofinanceira.controller;
 import com.educacaofinanceira.dto.request.DepositSavingsRequest;
 import com.educacaofinanceira.dto.request.WithdrawSavingsRequest;
 import com.educacaofinanceira.dto.response.SavingsResponse;
-import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import com.educacaofinanceira.service.SavingsService;
 import com.educacaofinanceira.util.SecurityHelper;
 import jakarta.validation.Valid;
@@ -29,7 +29,7 @@ public class SavingsController {
     public ResponseEntity<SavingsResponse> deposit(
             @Valid @RequestBody DepositSavingsRequest request,
             @RequestParam(required = false) UUID childId) {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
 
         // Se childId não for fornecido, assume que é o próprio usuário
         UUID targetChildId = (childId != null) ? childId : user.getId();
@@ -46,7 +46,7 @@ public class SavingsController {
     public ResponseEntity<SavingsResponse> withdraw(
             @Valid @RequestBody WithdrawSavingsRequest request,
             @RequestParam(required = false) UUID childId) {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
 
         // Se childId não for fornecido, assume que é o próprio usuário
         UUID targetChildId = (childId != null) ? childId : user.getId();
@@ -61,7 +61,7 @@ public class SavingsController {
      */
     @GetMapping
     public ResponseEntity<SavingsResponse> getSavings(@RequestParam(required = false) UUID childId) {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
 
         // Se childId não for fornecido, assume que é o próprio usuário
         UUID targetChildId = (childId != null) ? childId : user.getId();
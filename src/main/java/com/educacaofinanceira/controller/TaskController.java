@@ -1,17 +1,27 @@
 package com.educacaofinanceira.controller;
 
+import com.educacaofinanceira.dto.request.BulkApproveTaskRequest;
+import com.educacaofinanceira.dto.request.BulkCreateTaskRequest;
 import com.educacaofinanceira.dto.request.CreateTaskRequest;
 import com.educacaofinanceira.dto.request.RejectTaskRequest;
+import com.educacaofinanceira.dto.response.CursorPage;
+import com.educacaofinanceira.dto.response.TaskApprovalResult;
 import com.educacaofinanceira.dto.response.TaskAssignmentResponse;
 import com.educacaofinanceira.dto.response.TaskResponse;
-import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.model.enums.AssignmentStatus;
+import com.educacaofinanceira.model.enums.TaskCategory;
+import com.educacaofinanceira.repository.TaskAssignmentRepositoryCustom.TaskAssignmentFilter;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import com.educacaofinanceira.service.TaskService;
 import com.educacaofinanceira.util.SecurityHelper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,26 +33,71 @@ public class TaskController {
     private final TaskService taskService;
     private final SecurityHelper securityHelper;
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     /**
      * Cria uma nova tarefa (apenas PARENT)
      */
     @PostMapping
     public ResponseEntity<TaskResponse> createTask(@Valid @RequestBody CreateTaskRequest request) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         TaskResponse task = taskService.createTask(request, parent);
         return ResponseEntity.ok(task);
     }
 
     /**
-     * Lista tarefas
-     * - PARENT: todas as assignments da família
+     * Cria várias tarefas de uma vez (apenas PARENT)
+     * Ex.: as tarefas da semana para todas as crianças em uma única requisição
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<TaskResponse>> createTasks(@Valid @RequestBody BulkCreateTaskRequest request) {
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
+        List<TaskResponse> tasks = taskService.createTasks(request.getTasks(), parent);
+        return ResponseEntity.ok(tasks);
+    }
+
+    /**
+     * Lista tarefas (mais recentes primeiro)
+     * - PARENT: assignments da família
      * - CHILD: apenas suas próprias assignments
+     * Query params (todos opcionais):
+     * - status, category, childId (childId: apenas PARENT)
+     * - createdFrom / createdTo, approvedFrom / approvedTo (yyyy-MM-dd, inclusivos)
+     * - limit (máximo: 100; padrão 50 quando só o cursor é enviado)
+     * - cursor (valor do header X-Next-Cursor da página anterior)
+     * Sem limit e sem cursor: todas as assignments, como antes da paginação
+     * Header de resposta X-Next-Cursor: cursor da próxima página (ausente na última)
      */
     @GetMapping
-    public ResponseEntity<List<TaskAssignmentResponse>> getTasks() {
-        User user = securityHelper.getAuthenticatedUser();
-        List<TaskAssignmentResponse> tasks = taskService.getTasks(user);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<TaskAssignmentResponse>> getTasks(
+            @RequestParam(required = false) AssignmentStatus status,
+            @RequestParam(required = false) TaskCategory category,
+            @RequestParam(required = false) UUID childId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate approvedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate approvedTo,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
+
+        TaskAssignmentFilter filter = TaskAssignmentFilter.builder()
+                .status(status)
+                .category(category)
+                .childId(childId)
+                .createdFrom(startOfDay(createdFrom))
+                .createdTo(startOfNextDay(createdTo))
+                .approvedFrom(startOfDay(approvedFrom))
+                .approvedTo(startOfNextDay(approvedTo))
+                .build();
+
+        CursorPage<TaskAssignmentResponse> page = taskService.getTasks(user, filter, limit, cursor);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     /**
@@ -50,7 +105,7 @@ public class TaskController {
      */
     @PostMapping("/{assignmentId}/complete")
     public ResponseEntity<TaskAssignmentResponse> completeTask(@PathVariable UUID assignmentId) {
-        User child = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser child = securityHelper.getAuthenticatedPrincipal();
         TaskAssignmentResponse task = taskService.completeTask(assignmentId, child);
         return ResponseEntity.ok(task);
     }
@@ -60,11 +115,22 @@ public class TaskController {
      */
     @PostMapping("/{assignmentId}/approve")
     public ResponseEntity<TaskAssignmentResponse> approveTask(@PathVariable UUID assignmentId) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         TaskAssignmentResponse task = taskService.approveTask(assignmentId, parent);
         return ResponseEntity.ok(task);
     }
 
+    /**
+     * Aprova várias tarefas de uma vez (apenas PARENT)
+     * Retorna o resultado de cada item; itens inválidos não impedem os demais
+     */
+    @PostMapping("/bulk/approve")
+    public ResponseEntity<List<TaskApprovalResult>> approveTasks(@Valid @RequestBody BulkApproveTaskRequest request) {
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
+        List<TaskApprovalResult> results = taskService.approveTasks(request.getAssignmentIds(), parent);
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * Rejeita tarefa (apenas PARENT)
      */
@@ -72,7 +138,7 @@ public class TaskController {
     public ResponseEntity<TaskAssignmentResponse> rejectTask(
             @PathVariable UUID assignmentId,
             @Valid @RequestBody RejectTaskRequest request) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         TaskAssignmentResponse task = taskService.rejectTask(
                 assignmentId, request.getRejectionReason(), parent);
         return ResponseEntity.ok(task);
@@ -84,7 +150,7 @@ public class TaskController {
      */
     @PutMapping("/assignments/{assignmentId}/retry")
     public ResponseEntity<TaskAssignmentResponse> retryTask(@PathVariable UUID assignmentId) {
-        User child = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser child = securityHelper.getAuthenticatedPrincipal();
         TaskAssignmentResponse task = taskService.retryTask(assignmentId, child);
         return ResponseEntity.ok(task);
     }
@@ -95,8 +161,17 @@ public class TaskController {
      */
     @DeleteMapping("/{assignmentId}")
     public ResponseEntity<Void> deleteTask(@PathVariable UUID assignmentId) {
-        User parent = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
         taskService.deleteTaskAssignment(assignmentId, parent);
         return ResponseEntity.noContent().build();
     }
+
+    private LocalDateTime startOfDay(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
+
+    // Data final inclusiva: filtro usa "< início do dia seguinte"
+    private LocalDateTime startOfNextDay(LocalDate date) {
+        return date != null ? date.plusDays(1).atStartOfDay() : null;
+    }
 }
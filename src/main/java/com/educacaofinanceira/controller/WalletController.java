@@ -1,16 +1,25 @@
 package com.educacaofinanceira.controller;
 
+import com.educacaofinanceira.dto.response.CursorPage;
+import com.educacaofinanceira.dto.response.MonthlyStatementResponse;
 import com.educacaofinanceira.dto.response.TransactionResponse;
 import com.educacaofinanceira.dto.response.WalletResponse;
-import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import com.educacaofinanceira.service.TransactionExportService;
 import com.educacaofinanceira.service.WalletService;
 import com.educacaofinanceira.util.SecurityHelper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/wallet")
@@ -19,6 +28,9 @@ public class WalletController {
 
     private final WalletService walletService;
     private final SecurityHelper securityHelper;
+    private final TransactionExportService transactionExportService;
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     /**
      * Busca carteira de uma criança
@@ -26,7 +38,7 @@ public class WalletController {
      */
     @GetMapping
     public ResponseEntity<WalletResponse> getWallet(@RequestParam(required = false) UUID childId) {
-        User user = securityHelper.getAuthenticatedUser();
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
 
         // Se childId não for fornecido, assume que é o próprio usuário
         UUID targetChildId = (childId != null) ? childId : user.getId();
@@ -39,21 +51,94 @@ public class WalletController {
      * Busca histórico de transações
      * Query params:
      * - childId (opcional - se não fornecido, usa o próprio usuário)
-     * - limit (padrão: 20)
-     * - offset (padrão: 0)
+     * - limit (padrão: 20, máximo: 100)
+     * - cursor (opcional - valor do header X-Next-Cursor da página anterior)
+     * - offset (legado, padrão: 0 - ignorado quando há cursor)
+     * Header de resposta X-Next-Cursor: cursor da próxima página (ausente na última)
      */
     @GetMapping("/transactions")
     public ResponseEntity<List<TransactionResponse>> getTransactions(
             @RequestParam(required = false) UUID childId,
             @RequestParam(defaultValue = "20") Integer limit,
-            @RequestParam(defaultValue = "0") Integer offset) {
-        User user = securityHelper.getAuthenticatedUser();
+            @RequestParam(defaultValue = "0") Integer offset,
+            @RequestParam(required = false) String cursor) {
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
+
+        // Se childId não for fornecido, assume que é o próprio usuário
+        UUID targetChildId = (childId != null) ? childId : user.getId();
+
+        CursorPage<TransactionResponse> page = walletService.getTransactions(
+                targetChildId, user, limit, offset, cursor);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Extrato mensal: créditos, débitos, contagens e saldo de fechamento por mês
+     * Query params:
+     * - childId (opcional - se não fornecido, usa o próprio usuário)
+     * - from / to (opcionais, yyyy-MM - padrão: últimos 12 meses)
+     */
+    @GetMapping("/statements")
+    public ResponseEntity<List<MonthlyStatementResponse>> getStatements(
+            @RequestParam(required = false) UUID childId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
 
         // Se childId não for fornecido, assume que é o próprio usuário
         UUID targetChildId = (childId != null) ? childId : user.getId();
 
-        List<TransactionResponse> transactions = walletService.getTransactions(
-                targetChildId, user, limit, offset);
-        return ResponseEntity.ok(transactions);
+        List<MonthlyStatementResponse> statements = walletService.getStatements(targetChildId, user, from, to);
+        return ResponseEntity.ok(statements);
+    }
+
+    /**
+     * Exporta o histórico completo de transações em streaming
+     * Query params:
+     * - childId (opcional - se não fornecido, usa o próprio usuário)
+     * - format: csv (padrão) ou ndjson
+     * - from / to (opcionais, yyyy-MM-dd, inclusivos)
+     * Comprimido com gzip quando o cliente envia Accept-Encoding: gzip
+     */
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) UUID childId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        AuthenticatedUser user = securityHelper.getAuthenticatedPrincipal();
+
+        // Se childId não for fornecido, assume que é o próprio usuário
+        UUID targetChildId = (childId != null) ? childId : user.getId();
+
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.parse(format);
+        UUID walletId = transactionExportService.prepare(targetChildId, user, from, to);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutput = new GZIPOutputStream(output, 8192);
+                transactionExportService.export(walletId, from, to, exportFormat, gzipOutput);
+                gzipOutput.finish();
+            } else {
+                transactionExportService.export(walletId, from, to, exportFormat, output);
+            }
+        };
+
+        String filename = "transacoes-" + LocalDate.now() + "." + exportFormat.getExtension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType() + ";charset=UTF-8")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 }
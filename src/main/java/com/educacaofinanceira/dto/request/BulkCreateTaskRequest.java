@@ -0,0 +1,16 @@
+package com.educacaofinanceira.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCreateTaskRequest {
+
+    @NotEmpty(message = "Informe pelo menos uma tarefa")
+    @Size(max = 100, message = "Máximo de 100 tarefas por requisição")
+    private List<@Valid CreateTaskRequest> tasks;
+}
@@ -21,4 +21,7 @@ public class RegisterRequest {
 
     @NotBlank(message = "Nome da família é obrigatório")
     private String familyName;
+
+    @Size(max = 50, message = "Fuso horário deve ter no máximo 50 caracteres")
+    private String timeZone; // Opcional: ID IANA (ex.: America/Sao_Paulo); padrão America/Sao_Paulo
 }
@@ -0,0 +1,39 @@
+package com.educacaofinanceira.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extrato mensal da carteira (montado a partir de wallet_monthly_rollup)
+ */
+@Data
+public class MonthlyStatementResponse {
+
+    private YearMonth month;
+    private Long totalCredits = 0L;
+    private Long totalDebits = 0L;
+    private Integer creditCount = 0;
+    private Integer debitCount = 0;
+    private Integer closingBalance;
+    private List<ReferenceTotals> byReferenceType = new ArrayList<>();
+
+    public MonthlyStatementResponse(YearMonth month) {
+        this.month = month;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReferenceTotals {
+        private String referenceType;
+        private Long credits;
+        private Long debits;
+        private Integer creditCount;
+        private Integer debitCount;
+    }
+}
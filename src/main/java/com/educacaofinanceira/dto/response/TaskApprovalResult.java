@@ -0,0 +1,27 @@
+package com.educacaofinanceira.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Resultado de um item da aprovação em lote
+ * assignment só é preenchido quando outcome = APPROVED
+ */
+@Data
+@AllArgsConstructor
+public class TaskApprovalResult {
+
+    private UUID assignmentId;
+    private Outcome outcome;
+    private String message;
+    private TaskAssignmentResponse assignment;
+
+    public enum Outcome {
+        APPROVED,      // Aprovada: moedas e XP creditados
+        NOT_FOUND,     // Tarefa não encontrada
+        FORBIDDEN,     // Tarefa de outra família
+        NOT_COMPLETED  // Tarefa não está aguardando aprovação
+    }
+}
@@ -3,12 +3,16 @@ package com.educacaofinanceira.dto.response;
 import com.educacaofinanceira.model.Transaction;
 import com.educacaofinanceira.model.enums.ReferenceType;
 import com.educacaofinanceira.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TransactionResponse {
 
     private UUID id;
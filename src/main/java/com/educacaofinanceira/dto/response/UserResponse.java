@@ -1,6 +1,7 @@
 package com.educacaofinanceira.dto.response;
 
 import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.service.CachedUser;
 import lombok.Data;
 
 import java.util.UUID;
@@ -28,4 +29,17 @@ public class UserResponse {
         response.setAvatarUrl(user.getAvatarUrl());
         return response;
     }
+
+    // Construtor a partir do snapshot em cache
+    public static UserResponse fromCachedUser(CachedUser user) {
+        UserResponse response = new UserResponse();
+        response.setId(user.getId());
+        response.setEmail(user.getEmail());
+        response.setUsername(user.getUsername());
+        response.setFullName(user.getFullName());
+        response.setRole(user.getRole().name());
+        response.setFamilyId(user.getFamilyId());
+        response.setAvatarUrl(user.getAvatarUrl());
+        return response;
+    }
 }
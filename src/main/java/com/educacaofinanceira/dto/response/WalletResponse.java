@@ -12,6 +12,8 @@ public class WalletResponse {
     private UUID childId;
     private String childName;
     private Integer balance;
+    private Integer held;             // Reservado por resgates pendentes
+    private Integer availableBalance; // balance - held
     private Integer totalEarned;
     private Integer totalSpent;
 
@@ -21,6 +23,8 @@ public class WalletResponse {
         response.setChildId(wallet.getChild().getId());
         response.setChildName(wallet.getChild().getFullName());
         response.setBalance(wallet.getBalance());
+        response.setHeld(wallet.getHeld());
+        response.setAvailableBalance(wallet.getBalance() - wallet.getHeld());
         response.setTotalEarned(wallet.getTotalEarned());
         response.setTotalSpent(wallet.getTotalSpent());
         return response;
@@ -5,9 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Família (tenant)
+ * timeZone define quando começa o dia da família: tarefas recorrentes e rendimento semanal
+ * são processados no dia local de cada família, não na meia-noite do servidor
+ */
 @Entity
 @Table(name = "families")
 @Data
@@ -15,6 +21,8 @@ import java.util.UUID;
 @AllArgsConstructor
 public class Family {
 
+    public static final String DEFAULT_TIME_ZONE = "America/Sao_Paulo";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -22,6 +30,15 @@ public class Family {
     @Column(nullable = false, length = 100)
     private String name;
 
+    @Column(nullable = false, length = 50)
+    private String timeZone = DEFAULT_TIME_ZONE; // ID IANA (ex.: America/Sao_Paulo)
+
+    @Column
+    private LocalDate lastRecurringRunDate; // Último dia local com as tarefas recorrentes criadas
+
+    @Column
+    private LocalDate lastInterestRunDate; // Domingo (local) do último rendimento semanal aplicado
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
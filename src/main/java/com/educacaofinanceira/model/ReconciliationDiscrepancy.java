@@ -0,0 +1,55 @@
+package com.educacaofinanceira.model;
+
+import com.educacaofinanceira.model.enums.DiscrepancyType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Divergência encontrada pela reconciliação
+ * wallet_id/transaction_id sem FK: o relatório sobrevive à exclusão da criança
+ */
+@Entity
+@Table(name = "reconciliation_discrepancies", indexes = {
+        @Index(name = "idx_reconciliation_discrepancies_run_created", columnList = "run_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(nullable = false)
+    private UUID walletId;
+
+    @Column
+    private UUID transactionId; // Null para divergências do saldo/totais da carteira
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private DiscrepancyType type;
+
+    @Column(nullable = false)
+    private Long expected;
+
+    @Column(nullable = false)
+    private Long actual;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,56 @@
+package com.educacaofinanceira.model;
+
+import com.educacaofinanceira.model.enums.ReconciliationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Execução da reconciliação do ledger das carteiras
+ * lastWalletId é o checkpoint: uma execução interrompida continua da carteira seguinte
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReconciliationStatus status;
+
+    @Column
+    private UUID lastWalletId; // Checkpoint (carteiras verificadas em ordem de ID)
+
+    @Column(nullable = false)
+    private Long walletsChecked = 0L;
+
+    @Column(nullable = false)
+    private Long transactionsChecked = 0L;
+
+    @Column(nullable = false)
+    private Long discrepancies = 0L;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,62 @@
+package com.educacaofinanceira.model;
+
+import com.educacaofinanceira.model.enums.RecurringTaskRunStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Execução da geração diária de tarefas recorrentes (resumo do que foi criado)
+ * error guarda a primeira falha; as demais ficam no log
+ */
+@Entity
+@Table(name = "recurring_task_runs", indexes = {
+        @Index(name = "idx_recurring_task_runs_started", columnList = "started_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringTaskRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private LocalDate runDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurringTaskRunStatus status;
+
+    @Column(nullable = false)
+    private Long families = 0L; // Famílias com tarefas a criar no dia
+
+    @Column(nullable = false)
+    private Long familiesFailed = 0L;
+
+    @Column(nullable = false)
+    private Long assignmentsCreated = 0L;
+
+    @Column(nullable = false)
+    private Long retries = 0L;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+    }
+}
@@ -33,7 +33,10 @@ public class Redemption {
     private RedemptionStatus status;
 
     @Column(nullable = false)
-    private Integer coinAmount; // Quantidade de moedas debitadas no momento do pedido
+    private Integer coinAmount; // Quantidade de moedas reservadas no momento do pedido
+
+    @Column
+    private UUID holdId; // WalletHold do pedido (null em resgates antigos, debitados no pedido)
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime requestedAt;
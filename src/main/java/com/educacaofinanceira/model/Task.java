@@ -6,15 +6,21 @@ import com.educacaofinanceira.model.enums.TaskStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_family", columnList = "family_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -75,6 +81,19 @@ public class Task {
     @Column(nullable = true)
     private LocalDate recurrenceEndDate;
 
+    /**
+     * Crianças que recebem a tarefa recorrente a cada ocorrência
+     * Definidas na criação (childrenIds): o agendador não consulta o histórico de assignments
+     */
+    @ElementCollection
+    @CollectionTable(name = "task_recurring_targets",
+            joinColumns = @JoinColumn(name = "task_id"),
+            indexes = @Index(name = "idx_task_recurring_targets_child", columnList = "child_id"))
+    @Column(name = "child_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<UUID> recurringTargetIds = new HashSet<>();
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -10,7 +10,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "task_assignments")
+@Table(name = "task_assignments", indexes = {
+        // Listagem da criança ("hoje", histórico) e do pai por criança
+        @Index(name = "idx_task_assignments_child_created", columnList = "assigned_to_child_id, created_at DESC, id"),
+        // Filtro por status (ex.: COMPLETED aguardando aprovação) e contagens/streak por período de aprovação
+        @Index(name = "idx_task_assignments_child_status_created", columnList = "assigned_to_child_id, status, created_at DESC"),
+        @Index(name = "idx_task_assignments_child_status_approved", columnList = "assigned_to_child_id, status, approved_at"),
+        // Listagem da família (via tasks.family_id)
+        @Index(name = "idx_task_assignments_task_created", columnList = "task_id, created_at DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
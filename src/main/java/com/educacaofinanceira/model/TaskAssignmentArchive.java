@@ -0,0 +1,58 @@
+package com.educacaofinanceira.model;
+
+import com.educacaofinanceira.model.enums.AssignmentStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Assignments finalizadas (APPROVED/REJECTED) antigas, movidas de task_assignments pelo TaskArchiveService
+ * Mesmas colunas, sem FKs: a tabela quente fica proporcional ao trabalho ativo
+ * Somente leitura (badges e agendador de recorrentes consultam as duas tabelas)
+ */
+@Entity
+@Table(name = "task_assignments_archive", indexes = {
+        @Index(name = "idx_task_assignments_archive_child_status_approved",
+                columnList = "assigned_to_child_id, status, approved_at"),
+        @Index(name = "idx_task_assignments_archive_task", columnList = "task_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskAssignmentArchive {
+
+    @Id
+    private UUID id; // Mesmo ID da assignment original
+
+    @Column(name = "task_id", nullable = false)
+    private UUID taskId;
+
+    @Column(name = "assigned_to_child_id", nullable = false)
+    private UUID assignedToChildId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AssignmentStatus status;
+
+    @Column
+    private LocalDateTime completedAt;
+
+    @Column
+    private LocalDateTime approvedAt;
+
+    @Column(name = "approved_by_user_id")
+    private UUID approvedByUserId;
+
+    @Column(length = 500)
+    private String rejectionReason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,29 @@
+package com.educacaofinanceira.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Access tokens do usuário emitidos antes de revokedBefore são recusados
+ * Sem relacionamento com User: a linha continua valendo depois que o usuário é excluído
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_revoked_before", columnList = "revoked_before")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    private UUID userId;
+
+    @Column(nullable = false)
+    private LocalDateTime revokedBefore;
+}
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_wallet_created", columnList = "wallet_id, created_at DESC, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -33,6 +34,15 @@ public class Wallet {
     @Column(nullable = false)
     private Integer totalSpent = 0; // Total gasto
 
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer held = 0; // Reservado por WalletHold ativos (disponível = balance - held)
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version; // Controle de concorrência otimista (wallet.concurrency-mode)
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -47,6 +57,7 @@ public class Wallet {
         if (balance == null) balance = 0;
         if (totalEarned == null) totalEarned = 0;
         if (totalSpent == null) totalSpent = 0;
+        if (held == null) held = 0;
     }
 
     @PreUpdate
@@ -0,0 +1,62 @@
+package com.educacaofinanceira.model;
+
+import com.educacaofinanceira.model.enums.HoldStatus;
+import com.educacaofinanceira.model.enums.ReferenceType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reserva de moedas na carteira (ex.: resgate aguardando aprovação)
+ * Enquanto ACTIVE, o valor fica em Wallet.held: continua no saldo, mas não pode ser gasto
+ * Não gera Transaction; só a liquidação (SETTLED) vira um DEBIT no ledger
+ */
+@Entity
+@Table(name = "wallet_holds", indexes = {
+        @Index(name = "idx_wallet_holds_wallet_status", columnList = "wallet_id, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+
+    @Column(nullable = false)
+    private Integer amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private HoldStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReferenceType referenceType;
+
+    @Column
+    private UUID referenceId; // Ex.: ID do Redemption
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime resolvedAt; // Liquidação ou liberação
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = HoldStatus.ACTIVE;
+        }
+    }
+}
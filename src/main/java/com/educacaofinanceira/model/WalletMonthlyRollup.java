@@ -0,0 +1,59 @@
+package com.educacaofinanceira.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Totais mensais da carteira por tipo de referência
+ * Mantido incrementalmente na mesma transação de cada crédito/débito (WalletRollupService)
+ * Extratos mensais leem só estas linhas: custo O(meses), não O(transações)
+ */
+@Entity
+@Table(name = "wallet_monthly_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_monthly_rollup", columnNames = {"wallet_id", "month", "reference_type"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletMonthlyRollup {
+
+    // Valor de reference_type para transações sem referência (NULL não conflita no ON CONFLICT)
+    public static final String NO_REFERENCE = "NONE";
+
+    @Id
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+
+    @Column(nullable = false)
+    private LocalDate month; // Primeiro dia do mês
+
+    @Column(name = "reference_type", nullable = false, length = 20)
+    private String referenceType; // Nome do ReferenceType ou NONE
+
+    @Column(nullable = false)
+    private Long creditTotal;
+
+    @Column(nullable = false)
+    private Long debitTotal;
+
+    @Column(nullable = false)
+    private Integer creditCount;
+
+    @Column(nullable = false)
+    private Integer debitCount;
+
+    @Column(nullable = false)
+    private Integer closingBalance; // Saldo após a última transação deste grupo no mês
+
+    @Column(nullable = false)
+    private LocalDateTime lastTransactionAt;
+}
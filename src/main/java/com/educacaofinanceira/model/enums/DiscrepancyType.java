@@ -0,0 +1,10 @@
+package com.educacaofinanceira.model.enums;
+
+public enum DiscrepancyType {
+    CHAIN_BREAK,           // balanceBefore diferente do balanceAfter da transação anterior
+    AMOUNT_MISMATCH,       // balanceAfter diferente de balanceBefore +/- amount
+    BALANCE_MISMATCH,      // Wallet.balance diferente do saldo final do ledger
+    TOTAL_EARNED_MISMATCH, // Wallet.totalEarned diferente da soma dos créditos
+    TOTAL_SPENT_MISMATCH,  // Wallet.totalSpent diferente da soma dos débitos
+    HELD_MISMATCH          // Wallet.held diferente da soma das reservas ativas
+}
@@ -0,0 +1,7 @@
+package com.educacaofinanceira.model.enums;
+
+public enum HoldStatus {
+    ACTIVE,   // Moedas reservadas (indisponíveis, ainda no saldo)
+    SETTLED,  // Reserva liquidada: convertida em um DEBIT
+    RELEASED  // Reserva liberada: moedas voltam a ficar disponíveis
+}
@@ -0,0 +1,7 @@
+package com.educacaofinanceira.model.enums;
+
+public enum ReconciliationStatus {
+    RUNNING,   // Em execução (ou interrompida - retomada do checkpoint)
+    COMPLETED, // Todas as carteiras verificadas
+    FAILED     // Interrompida por erro
+}
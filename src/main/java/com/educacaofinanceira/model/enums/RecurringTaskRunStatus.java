@@ -0,0 +1,8 @@
+package com.educacaofinanceira.model.enums;
+
+public enum RecurringTaskRunStatus {
+    RUNNING,   // Em execução
+    COMPLETED, // Todas as famílias processadas
+    PARTIAL,   // Concluída, mas alguma família falhou após as tentativas
+    FAILED     // Interrompida por erro (antes de processar as famílias)
+}
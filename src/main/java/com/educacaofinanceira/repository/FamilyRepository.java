@@ -2,10 +2,74 @@ package com.educacaofinanceira.repository;
 
 import com.educacaofinanceira.model.Family;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface FamilyRepository extends JpaRepository<Family, UUID> {
+
+    // Data/hora local da família
+    String LOCAL_NOW = "(now() AT TIME ZONE f.time_zone) ";
+
+    // Horário da família dentro do dia (faixa de :slotMinutes escolhida pelo hash do ID, entre :slots faixas)
+    // Espalha a carga ao longo das primeiras horas do dia em vez de concentrar tudo na meia-noite
+    String SLOT = "make_interval(mins => CAST(mod(mod(hashtext(CAST(f.id AS text)), :slots) + :slots, :slots) " +
+                  "* :slotMinutes AS int)) ";
+
+    // Domingo mais recente (local), inclusive hoje
+    String LAST_SUNDAY = "(CAST(" + LOCAL_NOW + "AS date) - CAST(extract(isodow FROM " + LOCAL_NOW + ") AS int) % 7) ";
+
+    /**
+     * Famílias com tarefas recorrentes cujo dia local começou, o horário já passou e o dia ainda não foi processado
+     */
+    @Query(value = "SELECT f.* FROM families f " +
+                   "WHERE (f.last_recurring_run_date IS NULL " +
+                   "OR f.last_recurring_run_date < CAST(" + LOCAL_NOW + "AS date)) " +
+                   "AND " + LOCAL_NOW + ">= date_trunc('day', " + LOCAL_NOW + ") + " + SLOT +
+                   "AND EXISTS (SELECT 1 FROM tasks t WHERE t.family_id = f.id " +
+                   "AND t.is_recurring = true AND t.status = 'ACTIVE') " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Family> findDueForRecurringTasks(
+        @Param("slots") int slots,
+        @Param("slotMinutes") int slotMinutes,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Famílias cujo rendimento do último domingo (local) ainda não foi aplicado e cujo horário no domingo já passou
+     * Família que perdeu o domingo (ex.: servidor fora do ar) é processada na execução seguinte
+     */
+    @Query(value = "SELECT f.* FROM families f " +
+                   "WHERE COALESCE(f.last_interest_run_date, CAST(f.created_at AS date)) < " + LAST_SUNDAY +
+                   "AND " + LOCAL_NOW + ">= " + LAST_SUNDAY + "+ " + SLOT +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Family> findDueForWeeklyInterest(
+        @Param("slots") int slots,
+        @Param("slotMinutes") int slotMinutes,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Marca o dia como processado; retorna 0 se outra execução já o processou
+     */
+    @Modifying
+    @Query("UPDATE Family f SET f.lastRecurringRunDate = :date WHERE f.id = :familyId " +
+           "AND (f.lastRecurringRunDate IS NULL OR f.lastRecurringRunDate < :date)")
+    int claimRecurringRun(@Param("familyId") UUID familyId, @Param("date") LocalDate date);
+
+    /**
+     * Marca o domingo como processado; retorna 0 se outra execução já o processou
+     */
+    @Modifying
+    @Query("UPDATE Family f SET f.lastInterestRunDate = :sunday WHERE f.id = :familyId " +
+           "AND (f.lastInterestRunDate IS NULL OR f.lastInterestRunDate < :sunday)")
+    int claimInterestRun(@Param("familyId") UUID familyId, @Param("sunday") LocalDate sunday);
 }
@@ -0,0 +1,61 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, UUID> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    /**
+     * Grava a resposta de uma requisição em andamento
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, " +
+            "r.responseBody = :responseBody WHERE r.id = :id")
+    int complete(@Param("id") UUID id, @Param("statusCode") Integer statusCode,
+                 @Param("contentType") String contentType, @Param("responseBody") String responseBody);
+
+    /**
+     * Assume um registro em andamento cujo lease venceu (o dono parou de renovar: instância caiu)
+     * Retorna 0 se ele foi concluído, renovado ou assumido por outra instância
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.leaseExpiresAt = :leaseUntil, r.requestHash = :requestHash " +
+            "WHERE r.id = :id AND r.statusCode IS NULL AND r.leaseExpiresAt < :now")
+    int claimExpiredLease(@Param("id") UUID id, @Param("requestHash") String requestHash,
+                          @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Heartbeat: renova o lease dos registros em andamento desta instância
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.leaseExpiresAt = :leaseUntil " +
+            "WHERE r.id IN :ids AND r.statusCode IS NULL")
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Remove um lote de registros expirados
+     * Retorna a quantidade removida (0 = nada mais a remover)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN (" +
+                   "SELECT id FROM idempotency_keys WHERE expires_at < :now LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
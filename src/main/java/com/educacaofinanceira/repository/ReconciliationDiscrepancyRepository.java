@@ -0,0 +1,15 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.ReconciliationDiscrepancy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, UUID> {
+
+    List<ReconciliationDiscrepancy> findByRunIdOrderByCreatedAtAsc(UUID runId, Pageable pageable);
+}
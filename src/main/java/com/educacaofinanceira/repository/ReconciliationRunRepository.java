@@ -0,0 +1,17 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.ReconciliationRun;
+import com.educacaofinanceira.model.enums.ReconciliationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, UUID> {
+
+    Optional<ReconciliationRun> findFirstByStatusOrderByStartedAtDesc(ReconciliationStatus status);
+
+    Optional<ReconciliationRun> findFirstByOrderByStartedAtDesc();
+}
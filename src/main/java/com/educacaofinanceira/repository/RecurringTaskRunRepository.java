@@ -0,0 +1,11 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.RecurringTaskRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface RecurringTaskRunRepository extends JpaRepository<RecurringTaskRun, UUID> {
+}
@@ -2,17 +2,46 @@ package com.educacaofinanceira.repository;
 
 import com.educacaofinanceira.model.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
 
-    Optional<RefreshToken> findByToken(String token);
+    /**
+     * Busca refresh token pelo hash com EAGER fetch do User e Family
+     * (necessários para gerar o novo access token)
+     */
+    @Query("SELECT rt FROM RefreshToken rt " +
+           "JOIN FETCH rt.user u " +
+           "JOIN FETCH u.family " +
+           "WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
 
+    /**
+     * Remove todos os tokens do usuário em um único DELETE
+     * (o método derivado carregava as entidades e deletava uma a uma)
+     */
     @Transactional
-    void deleteByUserId(UUID userId);
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Remove um lote de tokens expirados
+     * Retorna a quantidade removida (0 = nada mais a remover)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+                   "SELECT id FROM refresh_tokens WHERE expires_at < :now LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
@@ -13,5 +13,6 @@ public interface SavingsRepository extends JpaRepository<Savings, UUID> {
 
     Optional<Savings> findByChildId(UUID childId);
 
-    List<Savings> findAllByBalanceGreaterThan(Integer balance);
+    // Poupanças com saldo das crianças de uma família (rendimento semanal)
+    List<Savings> findAllByChildFamilyIdAndBalanceGreaterThan(UUID familyId, Integer balance);
 }
@@ -0,0 +1,42 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.TaskAssignmentArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface TaskAssignmentArchiveRepository extends JpaRepository<TaskAssignmentArchive, UUID> {
+
+    /**
+     * Move um lote de assignments finalizadas antes do corte para o arquivo
+     * DELETE ... RETURNING + INSERT no mesmo statement: a linha nunca fica nas duas tabelas (nem em nenhuma)
+     * SKIP LOCKED: não espera assignments bloqueadas por uma aprovação em andamento
+     * Retorna a quantidade movida (0 = nada mais a arquivar)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "WITH moved AS (" +
+                   "DELETE FROM task_assignments WHERE id IN (" +
+                   "SELECT id FROM task_assignments " +
+                   "WHERE status IN ('APPROVED', 'REJECTED') AND COALESCE(approved_at, created_at) < :cutoff " +
+                   "LIMIT :batchSize FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING id, task_id, assigned_to_child_id, status, completed_at, approved_at, " +
+                   "approved_by_user_id, rejection_reason, created_at) " +
+                   "INSERT INTO task_assignments_archive (id, task_id, assigned_to_child_id, status, completed_at, " +
+                   "approved_at, approved_by_user_id, rejection_reason, created_at, archived_at) " +
+                   "SELECT id, task_id, assigned_to_child_id, status, completed_at, approved_at, " +
+                   "approved_by_user_id, rejection_reason, created_at, now() FROM moved",
+           nativeQuery = true)
+    int archiveBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("DELETE FROM TaskAssignmentArchive a WHERE a.assignedToChildId = :childId")
+    int deleteByAssignedToChildId(@Param("childId") UUID childId);
+}
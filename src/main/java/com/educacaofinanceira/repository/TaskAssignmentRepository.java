@@ -2,26 +2,83 @@ package com.educacaofinanceira.repository;
 
 import com.educacaofinanceira.model.TaskAssignment;
 import com.educacaofinanceira.model.enums.AssignmentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface TaskAssignmentRepository extends JpaRepository<TaskAssignment, UUID> {
+public interface TaskAssignmentRepository extends JpaRepository<TaskAssignment, UUID>, TaskAssignmentRepositoryCustom {
 
     List<TaskAssignment> findByAssignedToChildId(UUID childId);
 
     List<TaskAssignment> findByTaskId(UUID taskId);
 
+    /**
+     * Lock de várias assignments em um único SELECT ... FOR UPDATE
+     * Impede que duas aprovações concorrentes creditem a mesma tarefa; ORDER BY id evita deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ta FROM TaskAssignment ta WHERE ta.id IN :ids ORDER BY ta.id")
+    List<TaskAssignment> findByIdsWithLock(@Param("ids") Collection<UUID> ids);
+
     List<TaskAssignment> findByStatus(AssignmentStatus status);
 
     long countByAssignedToChildIdAndStatus(UUID childId, AssignmentStatus status);
 
+    // ===== Consultas de histórico: incluem task_assignments_archive =====
+
+    /**
+     * Total de assignments da criança com o status (tabela quente + arquivo)
+     */
+    @Query(value = "SELECT (SELECT COUNT(*) FROM task_assignments " +
+                   "WHERE assigned_to_child_id = :childId AND status = :status) + " +
+                   "(SELECT COUNT(*) FROM task_assignments_archive " +
+                   "WHERE assigned_to_child_id = :childId AND status = :status)",
+           nativeQuery = true)
+    long countByChildIdAndStatusIncludingArchive(@Param("childId") UUID childId, @Param("status") String status);
+
+    /**
+     * Maior quantidade de tarefas aprovadas em um único dia (tabela quente + arquivo)
+     * Agregado no banco: nenhuma assignment é carregada
+     */
+    @Query(value = "SELECT COALESCE(MAX(per_day.total), 0) FROM (" +
+                   "SELECT COUNT(*) AS total FROM (" +
+                   "SELECT approved_at FROM task_assignments " +
+                   "WHERE assigned_to_child_id = :childId AND status = 'APPROVED' AND approved_at IS NOT NULL " +
+                   "UNION ALL " +
+                   "SELECT approved_at FROM task_assignments_archive " +
+                   "WHERE assigned_to_child_id = :childId AND status = 'APPROVED' AND approved_at IS NOT NULL" +
+                   ") approved GROUP BY CAST(approved_at AS DATE)) per_day",
+           nativeQuery = true)
+    long maxApprovedInOneDayIncludingArchive(@Param("childId") UUID childId);
+
+    /**
+     * Datas de aprovação no período (tabela quente + arquivo)
+     */
+    @Query("SELECT ta.approvedAt FROM TaskAssignment ta " +
+           "WHERE ta.assignedToChild.id = :childId AND ta.status = :status " +
+           "AND ta.approvedAt BETWEEN :start AND :end " +
+           "UNION ALL " +
+           "SELECT a.approvedAt FROM TaskAssignmentArchive a " +
+           "WHERE a.assignedToChildId = :childId AND a.status = :status " +
+           "AND a.approvedAt BETWEEN :start AND :end")
+    List<LocalDateTime> findApprovedAtIncludingArchive(
+        @Param("childId") UUID childId,
+        @Param("status") AssignmentStatus status,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
     // Contar tarefas aprovadas em um dia específico
     long countByAssignedToChildIdAndStatusAndApprovedAtBetween(
         UUID childId,
@@ -44,19 +101,47 @@ public interface TaskAssignmentRepository extends JpaRepository<TaskAssignment,
         LocalDateTime end
     );
 
+    // Pares tarefa/criança recorrentes que ainda não receberam a assignment do dia
+    // - DAILY sempre; WEEKLY quando :dayCode (MON, TUE...) está em recurrence_days
+    // - Pula a criança que já tem assignment PENDING/COMPLETED da tarefa criada no dia
+    String DUE_RECURRING_TARGETS =
+            "FROM tasks t JOIN task_recurring_targets rt ON rt.task_id = t.id " +
+            "WHERE t.status = 'ACTIVE' AND t.is_recurring = true " +
+            "AND (t.recurrence_end_date IS NULL OR t.recurrence_end_date >= :today) " +
+            "AND (t.recurrence_type = 'DAILY' OR (t.recurrence_type = 'WEEKLY' " +
+            "AND CAST(:dayCode AS varchar) = ANY (string_to_array(t.recurrence_days, ',')))) " +
+            "AND NOT EXISTS (SELECT 1 FROM task_assignments ta " +
+            "WHERE ta.task_id = t.id AND ta.assigned_to_child_id = rt.child_id " +
+            "AND ta.status IN ('PENDING', 'COMPLETED') " +
+            "AND ta.created_at >= :startOfDay AND ta.created_at < :endOfDay) ";
+
     /**
-     * Verifica se já existe um assignment PENDING ou COMPLETED para uma tarefa e criança
-     * criado no dia atual (usado para tarefas recorrentes)
+     * Cria as assignments do dia das tarefas recorrentes de uma família e as notificações, em um único statement
+     * - :today, :startOfDay e :endOfDay são o dia local da família (início/fim convertidos para o horário do servidor)
+     * - Alvos vindos de task_recurring_targets (sem consultar o histórico)
+     * - Idempotente: repetir no mesmo dia não duplica (permite nova tentativa após falha)
+     * Retorna a quantidade de assignments criadas
      */
-    @Query("SELECT CASE WHEN COUNT(ta) > 0 THEN true ELSE false END FROM TaskAssignment ta " +
-           "WHERE ta.task.id = :taskId " +
-           "AND ta.assignedToChild.id = :childId " +
-           "AND ta.status IN ('PENDING', 'COMPLETED') " +
-           "AND ta.createdAt >= :startOfDay AND ta.createdAt < :endOfDay")
-    boolean existsActiveAssignmentForTaskAndChildToday(
-        @Param("taskId") UUID taskId,
-        @Param("childId") UUID childId,
+    @Modifying
+    @Query(value = "WITH due AS (" +
+                   "SELECT t.id AS task_id, rt.child_id, t.title " + DUE_RECURRING_TARGETS +
+                   "AND t.family_id = :familyId), " +
+                   "created AS (" +
+                   "INSERT INTO task_assignments (id, task_id, assigned_to_child_id, status, created_at) " +
+                   "SELECT gen_random_uuid(), task_id, child_id, 'PENDING', :now FROM due " +
+                   "RETURNING id, task_id, assigned_to_child_id) " +
+                   "INSERT INTO notifications (id, user_id, type, title, message, reference_type, reference_id, " +
+                   "is_read, created_at) " +
+                   "SELECT gen_random_uuid(), c.assigned_to_child_id, 'TASK_ASSIGNED', 'Nova tarefa disponível', " +
+                   "'Você recebeu uma tarefa: ' || due.title, 'TASK', c.id, false, :now " +
+                   "FROM created c JOIN due ON due.task_id = c.task_id AND due.child_id = c.assigned_to_child_id",
+           nativeQuery = true)
+    int createRecurringAssignments(
+        @Param("familyId") UUID familyId,
+        @Param("today") LocalDate today,
+        @Param("dayCode") String dayCode,
         @Param("startOfDay") LocalDateTime startOfDay,
-        @Param("endOfDay") LocalDateTime endOfDay
+        @Param("endOfDay") LocalDateTime endOfDay,
+        @Param("now") LocalDateTime now
     );
 }
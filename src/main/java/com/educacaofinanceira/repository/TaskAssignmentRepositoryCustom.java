@@ -0,0 +1,48 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.TaskAssignment;
+import com.educacaofinanceira.model.enums.AssignmentStatus;
+import com.educacaofinanceira.model.enums.TaskCategory;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consulta de assignments com filtros opcionais (montada conforme os filtros presentes)
+ */
+public interface TaskAssignmentRepositoryCustom {
+
+    /**
+     * Página de assignments ordenada por createdAt DESC, id ASC
+     * Uma única consulta com JOIN FETCH de task, criador da task, criança e quem aprovou (sem N+1)
+     */
+    List<TaskAssignment> findPage(TaskAssignmentFilter filter, int limit);
+
+    /**
+     * Todas as assignments que atendem aos filtros, na mesma ordem e com os mesmos JOIN FETCH, sem limite
+     * Listagem legada (cliente que não envia limit nem cursor)
+     */
+    List<TaskAssignment> findAllMatching(TaskAssignmentFilter filter);
+
+    /**
+     * Filtros da listagem; campos null são ignorados
+     * Datas "to" são exclusivas; afterCreatedAt/afterId é a posição do cursor (keyset)
+     */
+    @Value
+    @Builder(toBuilder = true)
+    class TaskAssignmentFilter {
+        UUID familyId;
+        UUID childId;
+        AssignmentStatus status;
+        TaskCategory category;
+        LocalDateTime createdFrom;
+        LocalDateTime createdTo;
+        LocalDateTime approvedFrom;
+        LocalDateTime approvedTo;
+        LocalDateTime afterCreatedAt;
+        UUID afterId;
+    }
+}
@@ -0,0 +1,81 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.TaskAssignment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementação de TaskAssignmentRepositoryCustom
+ * Só entram no WHERE os filtros informados, para o planner usar o índice composto certo
+ * (em vez de "(:param IS NULL OR ...)", que esconde os filtros no plano genérico)
+ */
+public class TaskAssignmentRepositoryImpl implements TaskAssignmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskAssignment> findPage(TaskAssignmentFilter filter, int limit) {
+        TypedQuery<TaskAssignment> query = createQuery(filter);
+        // Apenas associações to-one no JOIN FETCH: o limite vai para o SQL
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<TaskAssignment> findAllMatching(TaskAssignmentFilter filter) {
+        return createQuery(filter).getResultList();
+    }
+
+    private TypedQuery<TaskAssignment> createQuery(TaskAssignmentFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+
+        addCondition(conditions, params, "t.family.id = :familyId", "familyId", filter.getFamilyId());
+        addCondition(conditions, params, "ta.assignedToChild.id = :childId", "childId", filter.getChildId());
+        addCondition(conditions, params, "ta.status = :status", "status", filter.getStatus());
+        addCondition(conditions, params, "t.category = :category", "category", filter.getCategory());
+        addCondition(conditions, params, "ta.createdAt >= :createdFrom", "createdFrom", filter.getCreatedFrom());
+        addCondition(conditions, params, "ta.createdAt < :createdTo", "createdTo", filter.getCreatedTo());
+        addCondition(conditions, params, "ta.approvedAt >= :approvedFrom", "approvedFrom", filter.getApprovedFrom());
+        addCondition(conditions, params, "ta.approvedAt < :approvedTo", "approvedTo", filter.getApprovedTo());
+
+        // Página seguinte ao cursor (createdAt, id)
+        // createdAt <= cursor é redundante com o OR, mas vira Index Cond: a leitura começa no cursor
+        if (filter.getAfterCreatedAt() != null && filter.getAfterId() != null) {
+            conditions.add("ta.createdAt <= :afterCreatedAt");
+            conditions.add("(ta.createdAt < :afterCreatedAt " +
+                    "OR (ta.createdAt = :afterCreatedAt AND ta.id > :afterId))");
+            params.put("afterCreatedAt", filter.getAfterCreatedAt());
+            params.put("afterId", filter.getAfterId());
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT ta FROM TaskAssignment ta " +
+                "JOIN FETCH ta.task t " +
+                "JOIN FETCH t.createdBy " +
+                "JOIN FETCH ta.assignedToChild " +
+                "LEFT JOIN FETCH ta.approvedBy");
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY ta.createdAt DESC, ta.id ASC");
+
+        TypedQuery<TaskAssignment> query = entityManager.createQuery(jpql.toString(), TaskAssignment.class);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private void addCondition(List<String> conditions, Map<String, Object> params,
+                              String condition, String name, Object value) {
+        if (value != null) {
+            conditions.add(condition);
+            params.put(name, value);
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.educacaofinanceira.repository;
 
 import com.educacaofinanceira.model.Task;
-import com.educacaofinanceira.model.enums.TaskStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,15 +17,15 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
     List<Task> findByFamilyId(UUID familyId);
 
     /**
-     * Busca todas as tarefas recorrentes ativas
-     * (status ACTIVE, isRecurring = true, e sem data de término ou data de término futura)
+     * Tasks com o criador carregado (uma consulta para várias tasks)
      */
-    @Query("SELECT t FROM Task t " +
-           "WHERE t.status = :status " +
-           "AND t.isRecurring = true " +
-           "AND (t.recurrenceEndDate IS NULL OR t.recurrenceEndDate >= :today)")
-    List<Task> findActiveRecurringTasks(
-        @Param("status") TaskStatus status,
-        @Param("today") LocalDate today
-    );
+    @Query("SELECT t FROM Task t JOIN FETCH t.createdBy WHERE t.id IN :ids")
+    List<Task> findAllByIdWithCreator(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Remove a criança dos alvos das tarefas recorrentes (exclusão da criança)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM task_recurring_targets WHERE child_id = :childId", nativeQuery = true)
+    int deleteRecurringTargetsByChildId(@Param("childId") UUID childId);
 }
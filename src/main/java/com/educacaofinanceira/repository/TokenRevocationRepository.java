@@ -0,0 +1,35 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, UUID> {
+
+    /**
+     * Registra (ou avança) o instante de revogação do usuário; nunca recua uma revogação mais recente
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO token_revocations (user_id, revoked_before) VALUES (:userId, :revokedBefore) " +
+            "ON CONFLICT (user_id) DO UPDATE " +
+            "SET revoked_before = GREATEST(token_revocations.revoked_before, EXCLUDED.revoked_before)",
+            nativeQuery = true)
+    void revoke(@Param("userId") UUID userId, @Param("revokedBefore") LocalDateTime revokedBefore);
+
+    /**
+     * Remove revogações sem efeito (todos os tokens afetados já expiraram)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedBefore < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
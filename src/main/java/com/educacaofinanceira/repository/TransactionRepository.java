@@ -1,17 +1,88 @@
 package com.educacaofinanceira.repository;
 
+import com.educacaofinanceira.dto.response.TransactionResponse;
 import com.educacaofinanceira.model.Transaction;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
     List<Transaction> findByWalletIdOrderByCreatedAtDesc(UUID walletId);
 
-    List<Transaction> findByWalletIdOrderByCreatedAtDesc(UUID walletId, Pageable pageable);
+    /**
+     * Primeira página do histórico (keyset)
+     * Usa o índice idx_transactions_wallet_created (wallet_id, created_at DESC, id)
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId " +
+            "ORDER BY t.createdAt DESC, t.id ASC LIMIT :limit")
+    List<Transaction> findFirstPage(@Param("walletId") UUID walletId, @Param("limit") int limit);
+
+    /**
+     * Página seguinte ao cursor (createdAt, id): custo constante, independente da profundidade
+     * created_at <= cursor é redundante com o OR, mas vira Index Cond: a leitura começa no cursor
+     * (sem ele o OR fica como Filter e o índice é lido desde a transação mais recente)
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId " +
+            "AND t.createdAt <= :createdAt " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id > :id)) " +
+            "ORDER BY t.createdAt DESC, t.id ASC LIMIT :limit")
+    List<Transaction> findPageAfter(@Param("walletId") UUID walletId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    @Param("limit") int limit);
+
+    /**
+     * Exportação: projeção direto para DTO (nada fica no contexto de persistência)
+     * Cursor no servidor via fetch size - exige transação aberta durante a leitura do Stream
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.educacaofinanceira.dto.response.TransactionResponse(" +
+            "t.id, t.type, t.amount, t.balanceBefore, t.balanceAfter, t.description, " +
+            "t.referenceType, t.referenceId, t.createdAt) " +
+            "FROM Transaction t WHERE t.wallet.id = :walletId " +
+            "AND t.createdAt >= :from AND t.createdAt < :to " +
+            "ORDER BY t.createdAt DESC, t.id ASC")
+    Stream<TransactionResponse> streamForExport(@Param("walletId") UUID walletId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    /**
+     * Ledger completo em ordem cronológica (reconciliação)
+     * Mesma projeção e cursor da exportação; a ordem (created_at ASC, id DESC)
+     * percorre o índice idx_transactions_wallet_created de trás para frente
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.educacaofinanceira.dto.response.TransactionResponse(" +
+            "t.id, t.type, t.amount, t.balanceBefore, t.balanceAfter, t.description, " +
+            "t.referenceType, t.referenceId, t.createdAt) " +
+            "FROM Transaction t WHERE t.wallet.id = :walletId " +
+            "ORDER BY t.createdAt ASC, t.id DESC")
+    Stream<TransactionResponse> streamLedger(@Param("walletId") UUID walletId);
+
+    /**
+     * Paginação legada por offset (mantida para clientes antigos)
+     * OFFSET exato, sem arredondar para múltiplos do limit
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId " +
+            "ORDER BY t.createdAt DESC, t.id ASC LIMIT :limit OFFSET :offset")
+    List<Transaction> findPageByOffset(@Param("walletId") UUID walletId,
+                                       @Param("limit") int limit,
+                                       @Param("offset") int offset);
 }
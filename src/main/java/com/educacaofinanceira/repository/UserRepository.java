@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,17 +25,31 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     List<User> findByFamilyIdAndRole(UUID familyId, UserRole role);
 
+    List<User> findByFamilyId(UUID familyId);
+
     /**
-     * Busca usuário por email com EAGER fetch do Family
-     * Evita LazyInitializationException em contextos multi-transacionais
+     * Dos IDs informados, retorna os que são crianças da família (uma única consulta)
      */
-    @Query("SELECT u FROM User u JOIN FETCH u.family WHERE u.email = :email")
-    Optional<User> findByEmailWithFamily(@Param("email") String email);
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.family.id = :familyId " +
+           "AND u.role = com.educacaofinanceira.model.enums.UserRole.CHILD")
+    List<UUID> findChildIdsInFamily(@Param("ids") Collection<UUID> ids, @Param("familyId") UUID familyId);
 
     /**
-     * Busca usuário por username com EAGER fetch do Family
-     * Evita LazyInitializationException em contextos multi-transacionais
+     * Busca usuário por ID com EAGER fetch do Family
+     * Usado quando a requisição realmente precisa da entidade (ex: /me, avatar)
      */
-    @Query("SELECT u FROM User u JOIN FETCH u.family WHERE u.username = :username")
-    Optional<User> findByUsernameWithFamily(@Param("username") String username);
+    @Query("SELECT u FROM User u JOIN FETCH u.family WHERE u.id = :id")
+    Optional<User> findByIdWithFamily(@Param("id") UUID id);
+
+    /**
+     * Busca usuário por email OU username em uma única consulta (ambos com índice único)
+     * Em caso de conflito entre o email de um e o username de outro, o email tem prioridade
+     */
+    @Query("SELECT u FROM User u JOIN FETCH u.family WHERE u.email = :identifier OR u.username = :identifier " +
+            "ORDER BY CASE WHEN u.email = :identifier THEN 0 ELSE 1 END")
+    List<User> findAllByLoginWithFamily(@Param("identifier") String identifier);
+
+    default Optional<User> findByLoginWithFamily(String identifier) {
+        return findAllByLoginWithFamily(identifier).stream().findFirst();
+    }
 }
@@ -0,0 +1,34 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.WalletHold;
+import com.educacaofinanceira.model.enums.HoldStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface WalletHoldRepository extends JpaRepository<WalletHold, UUID> {
+
+    /**
+     * Finaliza a reserva somente se ainda estiver ACTIVE
+     * Retorna 0 se já foi liquidada/liberada (aprovação e rejeição simultâneas)
+     */
+    @Modifying
+    @Query("UPDATE WalletHold h SET h.status = :status, h.resolvedAt = :now " +
+            "WHERE h.id = :id AND h.status = com.educacaofinanceira.model.enums.HoldStatus.ACTIVE")
+    int resolve(@Param("id") UUID id, @Param("status") HoldStatus status, @Param("now") LocalDateTime now);
+
+    // Soma das reservas ativas (deve bater com Wallet.held - reconciliação)
+    @Query("SELECT COALESCE(SUM(h.amount), 0) FROM WalletHold h " +
+            "WHERE h.wallet.id = :walletId AND h.status = com.educacaofinanceira.model.enums.HoldStatus.ACTIVE")
+    Long sumActiveByWalletId(@Param("walletId") UUID walletId);
+
+    @Modifying
+    @Query("DELETE FROM WalletHold h WHERE h.wallet.id = :walletId")
+    int deleteByWalletId(@Param("walletId") UUID walletId);
+}
@@ -0,0 +1,75 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.model.WalletMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WalletMonthlyRollupRepository extends JpaRepository<WalletMonthlyRollup, UUID> {
+
+    /**
+     * Soma uma movimentação (ou um grupo delas) ao mês, criando a linha se não existir
+     * closing_balance acompanha a transação mais recente do grupo
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallet_monthly_rollup (id, wallet_id, month, reference_type, " +
+            "credit_total, debit_total, credit_count, debit_count, closing_balance, last_transaction_at) " +
+            "VALUES (:id, :walletId, :month, :referenceType, :creditTotal, :debitTotal, " +
+            ":creditCount, :debitCount, :closingBalance, :lastTransactionAt) " +
+            "ON CONFLICT (wallet_id, month, reference_type) DO UPDATE SET " +
+            "credit_total = wallet_monthly_rollup.credit_total + EXCLUDED.credit_total, " +
+            "debit_total = wallet_monthly_rollup.debit_total + EXCLUDED.debit_total, " +
+            "credit_count = wallet_monthly_rollup.credit_count + EXCLUDED.credit_count, " +
+            "debit_count = wallet_monthly_rollup.debit_count + EXCLUDED.debit_count, " +
+            "closing_balance = CASE WHEN EXCLUDED.last_transaction_at >= wallet_monthly_rollup.last_transaction_at " +
+            "THEN EXCLUDED.closing_balance ELSE wallet_monthly_rollup.closing_balance END, " +
+            "last_transaction_at = GREATEST(wallet_monthly_rollup.last_transaction_at, EXCLUDED.last_transaction_at)",
+            nativeQuery = true)
+    void upsert(@Param("id") UUID id,
+                @Param("walletId") UUID walletId,
+                @Param("month") LocalDate month,
+                @Param("referenceType") String referenceType,
+                @Param("creditTotal") long creditTotal,
+                @Param("debitTotal") long debitTotal,
+                @Param("creditCount") int creditCount,
+                @Param("debitCount") int debitCount,
+                @Param("closingBalance") int closingBalance,
+                @Param("lastTransactionAt") LocalDateTime lastTransactionAt);
+
+    /**
+     * Recalcula todos os meses da carteira a partir das transações (backfill)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallet_monthly_rollup (id, wallet_id, month, reference_type, " +
+            "credit_total, debit_total, credit_count, debit_count, closing_balance, last_transaction_at) " +
+            "SELECT gen_random_uuid(), t.wallet_id, CAST(date_trunc('month', t.created_at) AS date), " +
+            "COALESCE(t.reference_type, 'NONE'), " +
+            "COALESCE(SUM(t.amount) FILTER (WHERE t.type = 'CREDIT'), 0), " +
+            "COALESCE(SUM(t.amount) FILTER (WHERE t.type = 'DEBIT'), 0), " +
+            "COUNT(*) FILTER (WHERE t.type = 'CREDIT'), " +
+            "COUNT(*) FILTER (WHERE t.type = 'DEBIT'), " +
+            "(array_agg(t.balance_after ORDER BY t.created_at DESC, t.id DESC))[1], " +
+            "MAX(t.created_at) " +
+            "FROM transactions t WHERE t.wallet_id = :walletId " +
+            "GROUP BY t.wallet_id, CAST(date_trunc('month', t.created_at) AS date), COALESCE(t.reference_type, 'NONE')",
+            nativeQuery = true)
+    int rebuildForWallet(@Param("walletId") UUID walletId);
+
+    @Modifying
+    @Query("DELETE FROM WalletMonthlyRollup r WHERE r.wallet.id = :walletId")
+    int deleteByWalletId(@Param("walletId") UUID walletId);
+
+    @Query("SELECT r FROM WalletMonthlyRollup r WHERE r.wallet.id = :walletId " +
+            "AND r.month >= :from AND r.month <= :to ORDER BY r.month DESC, r.referenceType")
+    List<WalletMonthlyRollup> findByWalletIdAndPeriod(@Param("walletId") UUID walletId,
+                                                      @Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to);
+}
@@ -2,12 +2,17 @@ package com.educacaofinanceira.repository;
 
 import com.educacaofinanceira.model.Wallet;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -31,4 +36,113 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM Wallet w WHERE w.child.id = :childId")
     Optional<Wallet> findByChildIdWithLock(@Param("childId") UUID childId);
+
+    /**
+     * Leitura sem lock (projeção, não gerenciada pelo contexto de persistência)
+     * Usada pelo modo otimista antes do UPDATE condicional por versão
+     */
+    @Query("SELECT w.id AS id, w.balance AS balance, w.held AS held, w.version AS version " +
+            "FROM Wallet w WHERE w.child.id = :childId")
+    Optional<WalletVersion> findVersionByChildId(@Param("childId") UUID childId);
+
+    /**
+     * Crédito condicionado à versão lida (retorna 0 se outra transação alterou a carteira)
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.totalEarned = w.totalEarned + :amount, " +
+            "w.version = w.version + 1, w.updatedAt = :now WHERE w.id = :id AND w.version = :version")
+    int creditIfVersion(@Param("id") UUID id, @Param("version") Long version,
+                        @Param("amount") Integer amount, @Param("now") LocalDateTime now);
+
+    /**
+     * Débito condicionado à versão lida (retorna 0 se outra transação alterou a carteira)
+     * A versão também muda ao reservar/liberar, então o held lido continua válido no UPDATE
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.totalSpent = w.totalSpent + :amount, " +
+            "w.version = w.version + 1, w.updatedAt = :now WHERE w.id = :id AND w.version = :version")
+    int debitIfVersion(@Param("id") UUID id, @Param("version") Long version,
+                       @Param("amount") Integer amount, @Param("now") LocalDateTime now);
+
+    /**
+     * Crédito atômico em um único statement (modo atomic)
+     * RETURNING devolve o saldo já atualizado, sem SELECT prévio
+     */
+    @Query(value = "UPDATE wallets SET balance = balance + :amount, total_earned = total_earned + :amount, " +
+            "version = version + 1, updated_at = now() " +
+            "WHERE child_id = :childId RETURNING id, balance", nativeQuery = true)
+    Optional<WalletBalance> creditReturning(@Param("childId") UUID childId, @Param("amount") Integer amount);
+
+    /**
+     * Débito atômico condicionado ao saldo disponível (saldo insuficiente -> nenhuma linha)
+     */
+    @Query(value = "UPDATE wallets SET balance = balance - :amount, total_spent = total_spent + :amount, " +
+            "version = version + 1, updated_at = now() " +
+            "WHERE child_id = :childId AND balance - held >= :amount RETURNING id, balance", nativeQuery = true)
+    Optional<WalletBalance> debitReturning(@Param("childId") UUID childId, @Param("amount") Integer amount);
+
+    /**
+     * Reserva moedas em um único statement (lock da linha só durante o UPDATE)
+     * Saldo disponível insuficiente -> nenhuma linha
+     */
+    @Query(value = "UPDATE wallets SET held = held + :amount, version = version + 1, updated_at = now() " +
+            "WHERE child_id = :childId AND balance - held >= :amount RETURNING id, balance", nativeQuery = true)
+    Optional<WalletBalance> reserveReturning(@Param("childId") UUID childId, @Param("amount") Integer amount);
+
+    /**
+     * Liquida uma reserva: o valor sai do saldo e do reservado ao mesmo tempo
+     */
+    @Query(value = "UPDATE wallets SET balance = balance - :amount, held = held - :amount, " +
+            "total_spent = total_spent + :amount, version = version + 1, updated_at = now() " +
+            "WHERE id = :walletId AND held >= :amount RETURNING id, balance", nativeQuery = true)
+    Optional<WalletBalance> settleReturning(@Param("walletId") UUID walletId, @Param("amount") Integer amount);
+
+    /**
+     * Libera uma reserva (saldo não muda, nada é escrito no ledger)
+     */
+    @Modifying
+    @Query(value = "UPDATE wallets SET held = held - :amount, version = version + 1, updated_at = now() " +
+            "WHERE id = :walletId AND held >= :amount", nativeQuery = true)
+    int releaseHeld(@Param("walletId") UUID walletId, @Param("amount") Integer amount);
+
+    /**
+     * Lock pessimista de várias carteiras em um único SELECT ... FOR UPDATE
+     * ORDER BY id garante a mesma ordem de lock em todas as transações (evita deadlock)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.child.id IN :childIds ORDER BY w.id")
+    List<Wallet> findByChildIdsWithLock(@Param("childIds") Collection<UUID> childIds);
+
+    @Query("SELECT w.id FROM Wallet w")
+    List<UUID> findAllIds(Pageable pageable);
+
+    /**
+     * IDs das carteiras em ordem, a partir do checkpoint (keyset)
+     */
+    @Query("SELECT w.id FROM Wallet w ORDER BY w.id LIMIT :limit")
+    List<UUID> findFirstIds(@Param("limit") int limit);
+
+    @Query("SELECT w.id FROM Wallet w WHERE w.id > :lastId ORDER BY w.id LIMIT :limit")
+    List<UUID> findIdsAfter(@Param("lastId") UUID lastId, @Param("limit") int limit);
+
+    // Lock da carteira por ID (backfill do resumo mensal)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> lockById(@Param("id") UUID id);
+
+    interface WalletBalance {
+        UUID getId();
+
+        Integer getBalance();
+    }
+
+    interface WalletVersion {
+        UUID getId();
+
+        Integer getBalance();
+
+        Integer getHeld();
+
+        Long getVersion();
+    }
 }
@@ -0,0 +1,35 @@
+package com.educacaofinanceira.security;
+
+import com.educacaofinanceira.model.enums.UserRole;
+import lombok.Value;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal do usuário autenticado
+ * Construído apenas a partir das claims verificadas do JWT (sem acesso ao banco)
+ * Contém o necessário para validações de papel e de família nos services
+ */
+@Value
+public class AuthenticatedUser implements Principal {
+
+    UUID id;
+    String email;
+    UserRole role;
+    UUID familyId;
+
+    public boolean isParent() {
+        return role == UserRole.PARENT;
+    }
+
+    public boolean isChild() {
+        return role == UserRole.CHILD;
+    }
+
+    // Authentication.getName() passa a retornar o ID do usuário
+    @Override
+    public String getName() {
+        return id.toString();
+    }
+}
@@ -10,7 +10,6 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -20,18 +19,9 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String emailOrUsername) throws UsernameNotFoundException {
-        // Tenta buscar por email primeiro (PARENT), depois por username (CHILD)
-        User user = userRepository.findByEmail(emailOrUsername)
-                .orElseGet(() -> userRepository.findByUsername(emailOrUsername)
-                        .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + emailOrUsername)));
-
-        return buildUserDetails(user);
-    }
-
-    // Carrega usuário por ID
-    public UserDetails loadUserById(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + userId));
+        // Busca por email (PARENT) ou username (CHILD) em uma única consulta
+        User user = userRepository.findByLoginWithFamily(emailOrUsername)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + emailOrUsername));
 
         return buildUserDetails(user);
     }
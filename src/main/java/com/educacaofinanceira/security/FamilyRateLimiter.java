@@ -0,0 +1,199 @@
+package com.educacaofinanceira.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets por família (claim familyId do JWT)
+ *
+ * - Orçamentos separados para leitura (GET/HEAD) e escrita (demais métodos)
+ * - Cada bucket é um único AtomicLong: [mili-tokens (24 bits) | último refill em ms (40 bits)],
+ *   atualizado por CAS, sem locks
+ * - Famílias sem requisições há mais que o tempo de ociosidade são removidas
+ *   (um bucket ocioso estaria cheio de qualquer forma)
+ * - Rejeições por família ficam num mapa separado (só famílias com rejeição), que não é limpo
+ *   junto com os buckets: o relatório não perde quem foi limitado e ficou ocioso
+ */
+@Slf4j
+@Component
+public class FamilyRateLimiter {
+
+    private static final long MILLI = 1000;
+    private static final long TIME_MASK = (1L << 40) - 1;
+    private static final long MAX_MILLI_TOKENS = (1L << 24) - 1;
+
+    // Referência de tempo para caber em 40 bits (~34 anos)
+    private final long epoch = System.currentTimeMillis();
+
+    private final ConcurrentHashMap<UUID, FamilyBuckets> families = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Rejections> rejections = new ConcurrentHashMap<>();
+    private final Limit readLimit;
+    private final Limit writeLimit;
+    private final long idleMillis;
+    private final int maxTrackedRejections;
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    public FamilyRateLimiter(MeterRegistry meterRegistry,
+                             @Value("${rate-limit.read.capacity:120}") Integer readCapacity,
+                             @Value("${rate-limit.read.refill-per-second:20}") Integer readRefillPerSecond,
+                             @Value("${rate-limit.write.capacity:30}") Integer writeCapacity,
+                             @Value("${rate-limit.write.refill-per-second:5}") Integer writeRefillPerSecond,
+                             @Value("${rate-limit.idle-minutes:10}") Long idleMinutes,
+                             @Value("${rate-limit.max-tracked-rejections:10000}") Integer maxTrackedRejections) {
+        this.readLimit = new Limit(readCapacity, readRefillPerSecond);
+        this.writeLimit = new Limit(writeCapacity, writeRefillPerSecond);
+        this.idleMillis = idleMinutes * 60_000;
+        this.maxTrackedRejections = Math.max(1, maxTrackedRejections);
+
+        this.rejectedReads = Counter.builder("kidscoin.ratelimit.rejected")
+                .tag("budget", "read")
+                .register(meterRegistry);
+        this.rejectedWrites = Counter.builder("kidscoin.ratelimit.rejected")
+                .tag("budget", "write")
+                .register(meterRegistry);
+        Gauge.builder("kidscoin.ratelimit.families", families, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consome um token do orçamento da família
+     * Retorna 0 se permitido ou o tempo (ms) até haver um token disponível
+     */
+    public long tryAcquire(UUID familyId, boolean write) {
+        long now = System.currentTimeMillis() - epoch;
+        FamilyBuckets buckets = families.computeIfAbsent(familyId, id -> new FamilyBuckets(now));
+        buckets.lastAccess = now;
+
+        long waitMillis = write
+                ? consume(buckets.write, writeLimit, now)
+                : consume(buckets.read, readLimit, now);
+
+        if (waitMillis > 0) {
+            Rejections familyRejections = rejections.computeIfAbsent(familyId, id -> new Rejections());
+            if (write) {
+                familyRejections.writes.increment();
+                rejectedWrites.increment();
+            } else {
+                familyRejections.reads.increment();
+                rejectedReads.increment();
+            }
+        }
+
+        return waitMillis;
+    }
+
+    /**
+     * Rejeições por família (apenas famílias com rejeições), da maior para a menor
+     */
+    public Map<UUID, Map<String, Long>> rejectionsByFamily(int limit) {
+        Map<UUID, Map<String, Long>> result = new LinkedHashMap<>();
+
+        rejections.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<UUID, Rejections> e) -> e.getValue().total()).reversed())
+                .limit(limit)
+                .forEach(e -> result.put(e.getKey(), Map.of(
+                        "read", e.getValue().reads.sum(),
+                        "write", e.getValue().writes.sum())));
+
+        return result;
+    }
+
+    public int trackedFamilies() {
+        return families.size();
+    }
+
+    // Remove famílias ociosas (estado é recriado com bucket cheio no próximo acesso)
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long now = System.currentTimeMillis() - epoch;
+        int before = families.size();
+        families.values().removeIf(buckets -> now - buckets.lastAccess > idleMillis);
+
+        int removed = before - families.size();
+        if (removed > 0) {
+            log.debug("Rate limit: {} famílias ociosas removidas", removed);
+        }
+
+        trimRejections();
+    }
+
+    // Acima do limite, mantém só a metade com mais rejeições (memória limitada)
+    private void trimRejections() {
+        if (rejections.size() <= maxTrackedRejections) {
+            return;
+        }
+
+        rejections.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<UUID, Rejections> e) -> e.getValue().total()))
+                .limit(rejections.size() - maxTrackedRejections / 2)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(rejections::remove);
+    }
+
+    private long consume(AtomicLong bucket, Limit limit, long now) {
+        while (true) {
+            long state = bucket.get();
+            long tokens = state >>> 40;
+            long last = state & TIME_MASK;
+
+            // Refill: refillPerSecond tokens/s = refillPerSecond mili-tokens/ms
+            long elapsed = Math.max(0, now - last);
+            long available = Math.min(limit.capacityMilli, tokens + elapsed * limit.refillPerSecond);
+
+            if (available < MILLI) {
+                return Math.max(1, (MILLI - available + limit.refillPerSecond - 1) / limit.refillPerSecond);
+            }
+
+            if (bucket.compareAndSet(state, pack(available - MILLI, now))) {
+                return 0;
+            }
+        }
+    }
+
+    private static long pack(long milliTokens, long now) {
+        return (milliTokens << 40) | (now & TIME_MASK);
+    }
+
+    private record Limit(long capacityMilli, long refillPerSecond) {
+        Limit(int capacity, int refillPerSecond) {
+            this(Math.min(capacity * MILLI, MAX_MILLI_TOKENS), Math.max(1, refillPerSecond));
+        }
+    }
+
+    private final class FamilyBuckets {
+        private final AtomicLong read;
+        private final AtomicLong write;
+        private volatile long lastAccess;
+
+        FamilyBuckets(long now) {
+            this.read = new AtomicLong(pack(readLimit.capacityMilli, now));
+            this.write = new AtomicLong(pack(writeLimit.capacityMilli, now));
+            this.lastAccess = now;
+        }
+    }
+
+    private static final class Rejections {
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+
+        long total() {
+            return reads.sum() + writes.sum();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.educacaofinanceira.security;
+
+import com.educacaofinanceira.exception.ErrorResponse;
+import com.educacaofinanceira.service.IdempotencyService;
+import com.educacaofinanceira.service.IdempotencyService.Claim;
+import com.educacaofinanceira.service.IdempotencyService.StoredResponse;
+import com.educacaofinanceira.util.HashUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Idempotency-Key nas rotas que movimentam moedas (idempotency.paths)
+ * Sem o header, a requisição segue normalmente
+ *
+ * - Primeira requisição: executa e registra a resposta (exceto 5xx e 429, que podem ser repetidos)
+ * - Repetição: devolve a resposta registrada com o header Idempotent-Replayed
+ * - Mesma chave com outro corpo/rota/query string: 422
+ * - Chave em execução em outra instância: 409 com Retry-After
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final List<String> paths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             @Value("${idempotency.paths:/api/tasks/*/approve,/api/redemptions,/api/savings/deposit,/api/savings/withdraw}")
+                             List<String> paths) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.paths = paths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            // Sem usuário não há escopo para a chave (a requisição será recusada pela autorização)
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            error(response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+
+        // Corpo lido uma vez: entra no hash e é reapresentado ao controller
+        // Query string também entra (ex.: childId de /api/savings/deposit escolhe a criança)
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String query = request.getQueryString() != null ? "?" + request.getQueryString() : "";
+        String requestHash = HashUtils.sha256Hex(request.getMethod() + " " + request.getRequestURI() + query + "\n" +
+                new String(cachedRequest.body, StandardCharsets.UTF_8));
+
+        Claim claim = idempotencyService.claim(principal.getId(), key, requestHash);
+
+        switch (claim.outcome()) {
+            case REPLAY -> replay(response, claim.response(), requestHash);
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                error(response, HttpStatus.CONFLICT, "Requisição com esta Idempotency-Key ainda em processamento");
+            }
+            case OWNER -> execute(cachedRequest, response, filterChain, claim);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain, Claim claim) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+
+        try {
+            boolean chainCompleted = false;
+            try {
+                filterChain.doFilter(request, cachedResponse);
+                chainCompleted = true;
+            } finally {
+                // Só a falha da própria cadeia descarta a chave
+                if (!chainCompleted) {
+                    idempotencyService.abandon(claim);
+                }
+            }
+
+            // Resposta produzida: 2xx/4xx são registradas (complete não lança exceção nem descarta a chave)
+            int status = cachedResponse.getStatus();
+            if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                idempotencyService.complete(claim, new StoredResponse(status, cachedResponse.getContentType(),
+                        new String(cachedResponse.getContentAsByteArray(), StandardCharsets.UTF_8), null));
+            } else {
+                idempotencyService.abandon(claim);
+            }
+        } finally {
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored, String requestHash) throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            error(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key já usada em outra requisição");
+            return;
+        }
+
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            byte[] body = stored.body().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    // Mesmo formato do GlobalExceptionHandler
+    private void error(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        ErrorResponse error = new ErrorResponse(status.value(), message, LocalDateTime.now());
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    // Permite ler o corpo para o hash e de novo no controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
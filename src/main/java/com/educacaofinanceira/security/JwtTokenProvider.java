@@ -1,25 +1,54 @@
 package com.educacaofinanceira.security;
 
 import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.util.ExpiringCache;
+import com.educacaofinanceira.util.HashUtils;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider {
 
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.access-token-expiration}")
     private Long accessTokenExpiration;
 
+    @Value("${jwt.verified-token-cache-size:10000}")
+    private Integer verifiedTokenCacheSize;
+
+    // Chave e parser são imutáveis e thread-safe: criados uma única vez
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Tokens já verificados (chave = SHA-256 do token), expiram junto com o token
+    private ExpiringCache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = new ExpiringCache<>(verifiedTokenCacheSize);
+    }
+
     // Gera token JWT com claims do usuário
     public String generateToken(User user) {
         Date now = new Date();
@@ -33,37 +62,75 @@ public class JwtTokenProvider {
                 .claim("familyId", user.getFamily().getId().toString())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    // Valida o token JWT
-    public boolean validateToken(String token) {
+    /**
+     * Verifica assinatura e expiração em um único parse
+     * Retorna as claims ou vazio se o token for inválido
+     */
+    public Optional<Claims> parseClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Autentica o token e monta o principal a partir das claims (sem consultar o banco)
+     * Requisições repetidas com o mesmo token usam o cache e pulam a verificação HS512
+     * Tokens emitidos antes de uma revogação do usuário são recusados (consulta em memória)
+     */
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        String digest = HashUtils.sha256Hex(token);
+
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (tokenRevocationRegistry.isRevoked(cached.principal().getId(), cached.issuedAt())) {
+                verifiedTokens.invalidate(digest);
+                return Optional.empty();
+            }
+            return Optional.of(cached.principal());
         }
+
+        return parseClaims(token)
+                .filter(claims -> !tokenRevocationRegistry.isRevoked(
+                        UUID.fromString(claims.getSubject()), claims.getIssuedAt()))
+                .map(claims -> {
+                    AuthenticatedUser principal = toPrincipal(claims);
+                    verifiedTokens.put(digest, new VerifiedToken(principal, claims.getIssuedAt()),
+                            claims.getExpiration().getTime());
+                    return principal;
+                });
     }
 
-    // Extrai o ID do usuário do token
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Invalida todos os access tokens já emitidos para o usuário
+     * Chamar quando o usuário é excluído ou muda de papel (o principal vem das claims do token)
+     */
+    public void revokeTokens(UUID userId) {
+        tokenRevocationRegistry.revoke(userId);
+        verifiedTokens.invalidateIf(verified -> verified.principal().getId().equals(userId));
+    }
+
+    // Remove periodicamente tokens expirados do cache
+    @Scheduled(fixedDelay = 300000)
+    public void purgeExpiredTokens() {
+        verifiedTokens.purgeExpired();
+    }
 
-        return UUID.fromString(claims.getSubject());
+    private record VerifiedToken(AuthenticatedUser principal, Date issuedAt) {
     }
 
-    // Obtém a chave de assinatura
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Monta o principal autenticado a partir das claims verificadas
+    private AuthenticatedUser toPrincipal(Claims claims) {
+        return new AuthenticatedUser(
+                UUID.fromString(claims.getSubject()),
+                claims.get("email", String.class),
+                UserRole.valueOf(claims.get("role", String.class)),
+                UUID.fromString(claims.get("familyId", String.class))
+        );
     }
 }
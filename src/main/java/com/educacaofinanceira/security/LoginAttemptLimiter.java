@@ -0,0 +1,226 @@
+package com.educacaofinanceira.security;
+
+import com.educacaofinanceira.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limita tentativas de login por identificador (email/username) e por IP
+ * ANTES da verificação BCrypt, para que força bruta não consuma CPU
+ *
+ * - Contador de janela deslizante (janela atual + anterior ponderada)
+ * - Bloqueio com backoff exponencial quando o limite é atingido
+ * - Memória fixa: tabelas de tamanho fixo endereçadas por hash (com seed aleatória);
+ *   identificadores que colidem somam falhas no mesmo slot
+ * - Login bem-sucedido só zera o slot se todas as falhas nele forem do próprio identificador
+ *   (impressão digital de 24 bits guardada no slot): o sucesso de uma conta que colide não libera outra
+ * - Lock-free: cada slot é um long atualizado por CAS
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final long WINDOW_MASK = 0xFFFFL;
+    private static final long COUNT_MASK = 0xFFFL;
+    private static final long OWNER_MASK = 0xFFFFFFL;
+    // Dono do slot quando há falhas de mais de um identificador (impressões digitais nunca são 0)
+    private static final long SHARED = 0L;
+    private static final long BLOCKED_UNTIL_MASK = (1L << 56) - 1;
+    private static final int MAX_STRIKES = 16;
+
+    private final int mask;
+    private final long seed = new SecureRandom().nextLong();
+
+    // Slot: [índice da janela (16 bits) | contagem atual (12) | contagem anterior (12) | dono (24)]
+    private final AtomicLongArray windows;
+
+    // Slot: [bloqueios consecutivos (8 bits) | bloqueado até, epoch millis (56)]
+    private final AtomicLongArray penalties;
+
+    private final long windowMillis;
+    private final int maxFailuresPerIdentifier;
+    private final int maxFailuresPerIp;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public LoginAttemptLimiter(@Value("${security.login-throttle.slots:16384}") Integer slots,
+                               @Value("${security.login-throttle.window-seconds:900}") Long windowSeconds,
+                               @Value("${security.login-throttle.max-failures-per-identifier:5}") Integer maxFailuresPerIdentifier,
+                               @Value("${security.login-throttle.max-failures-per-ip:50}") Integer maxFailuresPerIp,
+                               @Value("${security.login-throttle.base-backoff-seconds:30}") Long baseBackoffSeconds,
+                               @Value("${security.login-throttle.max-backoff-seconds:900}") Long maxBackoffSeconds) {
+        // Arredonda para potência de 2 (endereçamento por máscara)
+        int size = Integer.highestOneBit(Math.max(slots, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.windows = new AtomicLongArray(size);
+        this.penalties = new AtomicLongArray(size);
+        this.windowMillis = windowSeconds * 1000;
+        this.maxFailuresPerIdentifier = maxFailuresPerIdentifier;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.baseBackoffMillis = baseBackoffSeconds * 1000;
+        this.maxBackoffMillis = maxBackoffSeconds * 1000;
+    }
+
+    /**
+     * Rejeita (429) se o identificador ou o IP estiverem bloqueados ou acima do limite
+     */
+    public void checkAllowed(String identifier, String clientIp) {
+        long now = System.currentTimeMillis();
+        check(slot(hash("id", normalize(identifier))), maxFailuresPerIdentifier, now);
+        if (clientIp != null) {
+            check(slot(hash("ip", clientIp)), maxFailuresPerIp, now);
+        }
+    }
+
+    /**
+     * Registra uma tentativa falha para o identificador e para o IP
+     */
+    public void recordFailure(String identifier, String clientIp) {
+        long now = System.currentTimeMillis();
+        registerFailure(hash("id", normalize(identifier)), maxFailuresPerIdentifier, now);
+        if (clientIp != null) {
+            registerFailure(hash("ip", clientIp), maxFailuresPerIp, now);
+        }
+    }
+
+    /**
+     * Login bem-sucedido: zera o histórico do identificador (o do IP é mantido)
+     * Slot compartilhado com outro identificador não é zerado: as falhas expiram com a janela
+     */
+    public void recordSuccess(String identifier) {
+        long hash = hash("id", normalize(identifier));
+        int slot = slot(hash);
+        long current = windows.get(slot);
+        if (owner(current) == fingerprint(hash) && windows.compareAndSet(slot, current, 0L)) {
+            penalties.set(slot, 0L);
+        }
+    }
+
+    private void check(int slot, int maxFailures, long now) {
+        long blockedUntil = penalties.get(slot) & BLOCKED_UNTIL_MASK;
+        if (blockedUntil > now) {
+            throw tooManyAttempts(blockedUntil - now);
+        }
+
+        if (estimate(windows.get(slot), now) >= maxFailures) {
+            throw tooManyAttempts(windowMillis - (now % windowMillis));
+        }
+    }
+
+    private void registerFailure(long hash, int maxFailures, long now) {
+        int slot = slot(hash);
+        long fingerprint = fingerprint(hash);
+        long windowIndex = now / windowMillis;
+        long current;
+        long updated;
+
+        // Incrementa a janela atual (rotacionando se a janela mudou)
+        // Slot sem falhas nas duas janelas passa a ser do identificador; falha de outro o torna compartilhado
+        do {
+            current = windows.get(slot);
+            long[] rolled = roll(current, windowIndex);
+            long count = Math.min(rolled[0] + 1, COUNT_MASK);
+            boolean empty = rolled[0] == 0 && rolled[1] == 0;
+            long owner = empty || owner(current) == fingerprint ? fingerprint : SHARED;
+            updated = pack(windowIndex, count, rolled[1], owner);
+        } while (!windows.compareAndSet(slot, current, updated));
+
+        if (estimate(updated, now) >= maxFailures) {
+            block(slot, now);
+        }
+    }
+
+    // Aplica bloqueio com backoff exponencial: base, 2x base, 4x base... até o máximo
+    private void block(int slot, long now) {
+        long current;
+        long updated;
+
+        do {
+            current = penalties.get(slot);
+            long blockedUntil = current & BLOCKED_UNTIL_MASK;
+            int strikes = (int) (current >>> 56);
+
+            // Bloqueio já ativo: não estende a cada tentativa
+            if (blockedUntil > now) {
+                return;
+            }
+
+            // Muito tempo sem bloqueio: recomeça o backoff
+            if (now - blockedUntil > maxBackoffMillis) {
+                strikes = 0;
+            }
+
+            strikes = Math.min(strikes + 1, MAX_STRIKES);
+            long backoff = Math.min(baseBackoffMillis << (strikes - 1), maxBackoffMillis);
+            updated = ((long) strikes << 56) | ((now + backoff) & BLOCKED_UNTIL_MASK);
+        } while (!penalties.compareAndSet(slot, current, updated));
+    }
+
+    // Estimativa da janela deslizante: atual + anterior proporcional ao tempo restante
+    private long estimate(long state, long now) {
+        long[] rolled = roll(state, now / windowMillis);
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+        return rolled[0] + (long) Math.floor(rolled[1] * (1.0 - elapsed));
+    }
+
+    // Retorna [atual, anterior] já ajustados para a janela informada
+    // (índice da janela módulo 2^16: só distingue a janela atual e a anterior)
+    private long[] roll(long state, long windowIndex) {
+        long stateWindow = state >>> 48;
+        long current = (state >>> 36) & COUNT_MASK;
+        long previous = (state >>> 24) & COUNT_MASK;
+
+        if (stateWindow == (windowIndex & WINDOW_MASK)) {
+            return new long[]{current, previous};
+        }
+        if (stateWindow == ((windowIndex - 1) & WINDOW_MASK)) {
+            return new long[]{0, current};
+        }
+        return new long[]{0, 0};
+    }
+
+    private long pack(long windowIndex, long current, long previous, long owner) {
+        return ((windowIndex & WINDOW_MASK) << 48) | (current << 36) | (previous << 24) | owner;
+    }
+
+    private long owner(long state) {
+        return state & OWNER_MASK;
+    }
+
+    // Hash com seed aleatória (impede colisões fabricadas para bloquear outra conta)
+    private long hash(String namespace, String key) {
+        long h = seed ^ namespace.hashCode();
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // Bits baixos do hash: índice do slot
+    private int slot(long hash) {
+        return (int) hash & mask;
+    }
+
+    // Bits altos do hash (independentes do índice): identificam o dono do slot
+    private long fingerprint(long hash) {
+        long fingerprint = (hash >>> 40) & OWNER_MASK;
+        return fingerprint == SHARED ? 1L : fingerprint;
+    }
+
+    private String normalize(String identifier) {
+        return identifier == null ? "" : identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private TooManyRequestsException tooManyAttempts(long retryAfterMillis) {
+        long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        return new TooManyRequestsException(
+                "Muitas tentativas de login. Tente novamente em " + retryAfterSeconds + " segundos",
+                retryAfterSeconds);
+    }
+}
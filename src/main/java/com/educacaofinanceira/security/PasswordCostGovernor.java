@@ -0,0 +1,95 @@
+package com.educacaofinanceira.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Define o custo (log rounds) do BCrypt
+ *
+ * - Custo fixo (security.password-hashing.cost): o mesmo em todas as instâncias e reinícios
+ * - cost = 0: mede na inicialização o tempo de hash entre min e max e escolhe o maior custo
+ *   que fica dentro do tempo alvo
+ * - Nunca abaixo de 12 (custo dos hashes já armazenados)
+ * - Hashes armazenados com custo menor são refeitos no próximo login bem-sucedido
+ *   (custo maior nunca é rebaixado)
+ */
+@Slf4j
+@Component
+public class PasswordCostGovernor {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    // Custo do BCryptPasswordEncoder original: nenhum hash existente é mais fraco que isso
+    private static final int BASELINE_COST = 12;
+
+    @Value("${security.password-hashing.cost:12}")
+    private Integer pinnedCost;
+
+    @Value("${security.password-hashing.target-millis:250}")
+    private Long targetMillis;
+
+    @Value("${security.password-hashing.min-cost:12}")
+    private Integer minCost;
+
+    @Value("${security.password-hashing.max-cost:14}")
+    private Integer maxCost;
+
+    private volatile int cost;
+
+    @PostConstruct
+    void calibrate() {
+        int floor = Math.max(BASELINE_COST, minCost);
+
+        if (pinnedCost > 0) {
+            cost = Math.max(floor, pinnedCost);
+            log.info("Custo BCrypt fixo: {}", cost);
+            return;
+        }
+
+        // Aquecimento (primeira execução inclui JIT/carregamento de classes)
+        BCrypt.hashpw("calibracao", BCrypt.gensalt(4));
+
+        int selected = floor;
+        for (int candidate = floor; candidate <= maxCost; candidate++) {
+            long elapsed = measure(candidate);
+            log.info("BCrypt custo {}: {} ms", candidate, elapsed);
+
+            if (elapsed > targetMillis) {
+                break;
+            }
+            selected = candidate;
+        }
+
+        cost = selected;
+        log.info("Custo BCrypt selecionado: {} (alvo: {} ms)", cost, targetMillis);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Indica se o hash armazenado usa um custo menor que o atual
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    // Tempo de um hash completo com o custo informado
+    private long measure(int candidateCost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibracao", BCrypt.gensalt(candidateCost));
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,129 @@
+package com.educacaofinanceira.security;
+
+import com.educacaofinanceira.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa hash e verificação de senhas/PINs (BCrypt) em um pool dedicado e limitado
+ *
+ * - O trabalho de CPU do BCrypt não compete com os demais endpoints
+ * - Fila limitada: quando cheia, rejeita na hora com 503 em vez de acumular espera
+ * - Métricas: profundidade da fila, threads ativas, tempo de hash e rejeições
+ */
+@Slf4j
+@Component
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordCostGovernor costGovernor;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  PasswordCostGovernor costGovernor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.password-hashing.threads:0}") Integer threads,
+                                  @Value("${security.password-hashing.queue-capacity:32}") Integer queueCapacity,
+                                  @Value("${security.password-hashing.timeout-millis:5000}") Long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.costGovernor = costGovernor;
+        this.timeoutMillis = timeoutMillis;
+
+        // 0 = metade dos processadores (mínimo 1)
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("kidscoin.password.hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("kidscoin.password.hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("kidscoin.password.rejected")
+                .register(meterRegistry);
+        Gauge.builder("kidscoin.password.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("kidscoin.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("kidscoin.password.cost", costGovernor, PasswordCostGovernor::getCost)
+                .register(meterRegistry);
+
+        log.info("Pool de hash de senhas: {} threads, fila de {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Gera o hash de uma senha/PIN com o custo atual
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Verifica uma senha/PIN contra o hash armazenado (qualquer custo)
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Indica se o hash armazenado deve ser refeito com o custo atual
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return costGovernor.needsRehash(encodedPassword);
+    }
+
+    // Executa no pool dedicado e aguarda o resultado com timeout
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Servidor ocupado, tente novamente em instantes");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Servidor ocupado, tente novamente em instantes");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Requisição interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Falha ao processar senha", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,32 @@
+package com.educacaofinanceira.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint do Actuator (/actuator/ratelimits) com as rejeições por família
+ * Usado para ajustar capacidade e taxa de refill dos buckets
+ * Fora da exposição web padrão: lista IDs de todas as famílias (habilitar só em rede interna)
+ */
+@Component
+@Endpoint(id = "ratelimits")
+@RequiredArgsConstructor
+public class RateLimitEndpoint {
+
+    private static final int TOP_FAMILIES = 50;
+
+    private final FamilyRateLimiter familyRateLimiter;
+
+    @ReadOperation
+    public Map<String, Object> rateLimits() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("trackedFamilies", familyRateLimiter.trackedFamilies());
+        result.put("rejectionsByFamily", familyRateLimiter.rejectionsByFamily(TOP_FAMILIES));
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package com.educacaofinanceira.security;
+
+import com.educacaofinanceira.model.TokenRevocation;
+import com.educacaofinanceira.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revogação de access tokens por usuário ("tokens emitidos antes de")
+ *
+ * - Persistida em token_revocations (vale para todas as instâncias e sobrevive a reinícios)
+ * - Consultada em memória a cada requisição; recarregada do banco periodicamente,
+ *   então outras instâncias passam a recusar os tokens em até jwt.revocation-refresh-millis
+ * - Só importa enquanto algum token afetado pode estar válido: depois da validade do access token é descartada
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final long accessTokenExpiration;
+
+    // userId -> tokens com iat anterior a este instante (epoch millis) são recusados
+    private final Map<UUID, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    public TokenRevocationRegistry(TokenRevocationRepository tokenRevocationRepository,
+                                   @Value("${jwt.access-token-expiration}") Long accessTokenExpiration) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.accessTokenExpiration = accessTokenExpiration;
+    }
+
+    /**
+     * Recusa todos os tokens do usuário emitidos até agora
+     * O iat do JWT tem resolução de segundos: o segundo atual também é revogado
+     * Grava na transação de quem chama (ex.: exclusão da criança)
+     */
+    public void revoke(UUID userId) {
+        long before = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        tokenRevocationRepository.revoke(userId, toLocalDateTime(before));
+        revokedBefore.merge(userId, before, Math::max);
+    }
+
+    /**
+     * Token do usuário emitido antes da última revogação
+     */
+    public boolean isRevoked(UUID userId, Date issuedAt) {
+        Long before = revokedBefore.get(userId);
+        return before != null && (issuedAt == null || issuedAt.getTime() < before);
+    }
+
+    /**
+     * Recarrega as revogações do banco (inclui as feitas por outras instâncias)
+     * e descarta as que não afetam mais nenhum token válido
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.revocation-refresh-millis:30000}")
+    public void refresh() {
+        for (TokenRevocation revocation : tokenRevocationRepository.findAll()) {
+            long before = revocation.getRevokedBefore().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            revokedBefore.merge(revocation.getUserId(), before, Math::max);
+        }
+
+        long cutoff = System.currentTimeMillis() - accessTokenExpiration;
+        revokedBefore.values().removeIf(before -> before < cutoff);
+    }
+
+    /**
+     * Remove do banco as revogações mais antigas que a validade do access token
+     * Executado a cada hora
+     */
+    @Scheduled(cron = "0 45 * * * *")
+    public void purgeExpired() {
+        int deleted = tokenRevocationRepository.deleteRevokedBefore(
+                toLocalDateTime(System.currentTimeMillis() - accessTokenExpiration));
+        if (deleted > 0) {
+            log.info("Removidas {} revogações de tokens expiradas", deleted);
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,58 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.exception.ResourceNotFoundException;
+import com.educacaofinanceira.model.Wallet;
+import com.educacaofinanceira.repository.WalletRepository;
+import com.educacaofinanceira.repository.WalletRepository.WalletBalance;
+import com.educacaofinanceira.repository.WalletRepository.WalletVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Atualização atômica: um único UPDATE ... RETURNING por movimentação
+ *
+ * - Sem SELECT prévio: o lock da linha só é adquirido no próprio UPDATE
+ * - Saldo insuficiente é verificado no SQL (balance - held >= amount)
+ * - balanceBefore é derivado do saldo retornado (after -/+ amount)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.concurrency-mode", havingValue = "atomic")
+public class AtomicWalletBalanceUpdater implements WalletBalanceUpdater {
+
+    private final WalletRepository walletRepository;
+    private final PersistenceContextRefresher persistenceContextRefresher;
+
+    @Override
+    public BalanceChange credit(UUID childId, Integer amount) {
+        WalletBalance wallet = walletRepository.creditReturning(childId, amount)
+                .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
+
+        return applied(wallet, wallet.getBalance() - amount);
+    }
+
+    @Override
+    public BalanceChange debit(UUID childId, Integer amount) {
+        WalletBalance wallet = walletRepository.debitReturning(childId, amount).orElse(null);
+
+        if (wallet == null) {
+            // Nenhuma linha: carteira inexistente ou saldo insuficiente
+            WalletVersion current = walletRepository.findVersionByChildId(childId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
+            throw new IllegalArgumentException("Saldo insuficiente. Saldo disponível: " +
+                    (current.getBalance() - current.getHeld()) + " moedas");
+        }
+
+        return applied(wallet, wallet.getBalance() + amount);
+    }
+
+    private BalanceChange applied(WalletBalance wallet, Integer balanceBefore) {
+        // Carteira já carregada nesta transação não pode ficar com o saldo antigo
+        persistenceContextRefresher.refreshIfLoaded(Wallet.class, wallet.getId());
+
+        return new BalanceChange(wallet.getId(), balanceBefore, wallet.getBalance());
+    }
+}
@@ -12,17 +12,15 @@ import com.educacaofinanceira.model.RefreshToken;
 import com.educacaofinanceira.model.User;
 import com.educacaofinanceira.model.enums.UserRole;
 import com.educacaofinanceira.repository.FamilyRepository;
-import com.educacaofinanceira.repository.RefreshTokenRepository;
 import com.educacaofinanceira.repository.UserRepository;
 import com.educacaofinanceira.security.JwtTokenProvider;
+import com.educacaofinanceira.security.LoginAttemptLimiter;
+import com.educacaofinanceira.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.UUID;
+import java.time.ZoneId;
 
 @Service
 @RequiredArgsConstructor
@@ -30,12 +28,10 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final FamilyRepository familyRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
-
-    @Value("${jwt.refresh-token-expiration}")
-    private Long refreshTokenExpiration;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -47,12 +43,15 @@ public class AuthService {
         // Cria a família
         Family family = new Family();
         family.setName(request.getFamilyName());
+        if (request.getTimeZone() != null) {
+            family.setTimeZone(validateTimeZone(request.getTimeZone()));
+        }
         family = familyRepository.save(family);
 
         // Cria o usuário PARENT
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setFullName(request.getFullName());
         user.setRole(UserRole.PARENT);
         user.setFamily(family);
@@ -60,49 +59,53 @@ public class AuthService {
 
         // Gera tokens
         String accessToken = jwtTokenProvider.generateToken(user);
-        String refreshToken = createRefreshToken(user);
+        String refreshToken = refreshTokenService.create(user);
 
         return new AuthResponse(accessToken, refreshToken, UserResponse.fromUser(user));
     }
 
-    @Transactional
-    public AuthResponse login(LoginRequest request) {
-        // Busca usuário por email ou username
+    /**
+     * Sem @Transactional: a checagem de limite e o BCrypt rodam sem segurar conexão do pool;
+     * cada escrita (rehash, revogação, novo refresh token) tem sua própria transação
+     */
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        String identifier = request.getEmailOrUsername();
+
+        // Rejeita força bruta antes de qualquer consulta ou BCrypt
+        loginAttemptLimiter.checkAllowed(identifier, clientIp);
+
+        // Busca usuário por email ou username (consulta única)
         // USA MÉTODOS COM JOIN FETCH para evitar LazyInitializationException
-        User user = userRepository.findByEmailWithFamily(request.getEmailOrUsername())
-                .orElseGet(() -> userRepository.findByUsernameWithFamily(request.getEmailOrUsername())
-                        .orElseThrow(() -> new UnauthorizedException("Credenciais inválidas")));
+        User user = userRepository.findByLoginWithFamily(identifier).orElse(null);
 
-        // Valida senha/PIN
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        // Valida senha/PIN (BCrypt roda no pool dedicado, fora da thread do Tomcat)
+        if (user == null || !passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            loginAttemptLimiter.recordFailure(identifier, clientIp);
             throw new UnauthorizedException("Credenciais inválidas");
         }
 
-        // Deleta refresh tokens antigos do usuário
-        refreshTokenRepository.deleteByUserId(user.getId());
+        loginAttemptLimiter.recordSuccess(identifier);
+
+        // Refaz o hash se o custo do BCrypt mudou
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            userRepository.save(user);
+        }
+
+        // Deleta refresh tokens antigos do usuário (DELETE único)
+        refreshTokenService.revokeAll(user.getId());
 
         // Gera novos tokens
         String accessToken = jwtTokenProvider.generateToken(user);
-        String refreshToken = createRefreshToken(user);
+        String refreshToken = refreshTokenService.create(user);
 
         return new AuthResponse(accessToken, refreshToken, UserResponse.fromUser(user));
     }
 
     @Transactional
     public AuthResponse refresh(RefreshTokenRequest request) {
-        // Busca o refresh token
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(request.getRefreshToken())
-                .orElseThrow(() -> new UnauthorizedException("Refresh token inválido"));
-
-        // Valida se não está revogado
-        if (refreshToken.getRevoked()) {
-            throw new UnauthorizedException("Refresh token revogado");
-        }
-
-        // Valida se não expirou
-        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new UnauthorizedException("Refresh token expirado");
-        }
+        // Busca e valida o refresh token (inexistente, revogado ou expirado -> 401)
+        RefreshToken refreshToken = refreshTokenService.verify(request.getRefreshToken());
 
         // Busca o usuário
         User user = refreshToken.getUser();
@@ -113,15 +116,14 @@ public class AuthService {
         return new AuthResponse(accessToken, request.getRefreshToken(), UserResponse.fromUser(user));
     }
 
-    // Cria um novo refresh token
-    private String createRefreshToken(User user) {
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setUser(user);
-        refreshToken.setExpiresAt(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000));
-        refreshToken.setRevoked(false);
-        refreshTokenRepository.save(refreshToken);
-
-        return refreshToken.getToken();
+    /**
+     * Aceita apenas IDs IANA (ex.: America/Sao_Paulo), que o PostgreSQL também conhece (AT TIME ZONE)
+     * Offsets como "-03:00" são recusados: o PostgreSQL os interpreta com sinal invertido
+     */
+    private String validateTimeZone(String timeZone) {
+        if (!ZoneId.getAvailableZoneIds().contains(timeZone)) {
+            throw new IllegalArgumentException("Fuso horário inválido");
+        }
+        return timeZone;
     }
 }
@@ -65,9 +65,9 @@ public class BadgeService {
     private boolean checkCriteria(UUID childId, Badge badge) {
         switch (badge.getCriteriaType()) {
             case TASK_COUNT:
-                // Total de tarefas aprovadas
+                // Total de tarefas aprovadas (inclui as arquivadas)
                 long taskCount = taskAssignmentRepository
-                        .countByAssignedToChildIdAndStatus(childId, AssignmentStatus.APPROVED);
+                        .countByChildIdAndStatusIncludingArchive(childId, AssignmentStatus.APPROVED.name());
                 return taskCount >= badge.getCriteriaValue();
 
             case CURRENT_BALANCE:
@@ -115,34 +115,10 @@ public class BadgeService {
 
     /**
      * Verifica se a criança completou X tarefas em um único dia
+     * Agrupamento por dia feito no banco (inclui as arquivadas)
      */
     private boolean checkMaxTasksInOneDay(UUID childId, Integer targetCount) {
-        // Buscar todas as tarefas aprovadas
-        List<TaskAssignment> approvedTasks = taskAssignmentRepository
-                .findByAssignedToChildIdAndStatusOrderByApprovedAtDesc(childId, AssignmentStatus.APPROVED);
-
-        // Agrupar por data e contar
-        int maxInOneDay = 0;
-        LocalDate currentDate = null;
-        int currentCount = 0;
-
-        for (TaskAssignment task : approvedTasks) {
-            if (task.getApprovedAt() == null) continue;
-
-            LocalDate taskDate = task.getApprovedAt().toLocalDate();
-
-            if (currentDate == null || !taskDate.equals(currentDate)) {
-                // Nova data
-                currentDate = taskDate;
-                currentCount = 1;
-            } else {
-                // Mesma data
-                currentCount++;
-            }
-
-            maxInOneDay = Math.max(maxInOneDay, currentCount);
-        }
-
+        long maxInOneDay = taskAssignmentRepository.maxApprovedInOneDayIncludingArchive(childId);
         return maxInOneDay >= targetCount;
     }
 
@@ -150,17 +126,16 @@ public class BadgeService {
      * Verifica se a criança tem uma sequência de X dias consecutivos com tarefas
      */
     private boolean checkStreakDays(UUID childId, Integer targetDays) {
-        // Buscar tarefas aprovadas nos últimos 60 dias
+        // Buscar datas de aprovação dos últimos 60 dias (inclui as arquivadas)
         LocalDateTime sixtyDaysAgo = LocalDateTime.now().minusDays(60);
-        List<TaskAssignment> approvedTasks = taskAssignmentRepository
-                .findByAssignedToChildIdAndStatusAndApprovedAtBetween(
-                        childId, AssignmentStatus.APPROVED, sixtyDaysAgo, LocalDateTime.now());
+        List<LocalDateTime> approvedAt = taskAssignmentRepository.findApprovedAtIncludingArchive(
+                childId, AssignmentStatus.APPROVED, sixtyDaysAgo, LocalDateTime.now());
 
-        if (approvedTasks.isEmpty()) return false;
+        if (approvedAt.isEmpty()) return false;
 
         // Extrair datas únicas (dias com pelo menos 1 tarefa aprovada)
-        List<LocalDate> dates = approvedTasks.stream()
-                .map(t -> t.getApprovedAt().toLocalDate())
+        List<LocalDate> dates = approvedAt.stream()
+                .map(LocalDateTime::toLocalDate)
                 .distinct()
                 .sorted()
                 .toList();
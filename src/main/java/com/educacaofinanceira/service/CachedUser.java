@@ -0,0 +1,28 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.model.enums.UserRole;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Dados do usuário mantidos pelo UserCache
+ * Imutável: pode ser compartilhado entre requisições com segurança
+ */
+@Value
+public class CachedUser {
+
+    UUID id;
+    String email;
+    String username;
+    String fullName;
+    UserRole role;
+    UUID familyId;
+    String avatarUrl;
+
+    public static CachedUser from(User user) {
+        return new CachedUser(user.getId(), user.getEmail(), user.getUsername(), user.getFullName(),
+                user.getRole(), user.getFamily().getId(), user.getAvatarUrl());
+    }
+}
@@ -13,6 +13,7 @@ import com.educacaofinanceira.repository.BadgeRepository;
 import com.educacaofinanceira.repository.UserBadgeRepository;
 import com.educacaofinanceira.repository.UserRepository;
 import com.educacaofinanceira.repository.UserXPRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -213,7 +214,7 @@ public class GamificationService {
     /**
      * Busca dados de gamificação de uma criança
      */
-    public GamificationResponse getGamification(UUID childId, User requestingUser) {
+    public GamificationResponse getGamification(UUID childId, AuthenticatedUser requestingUser) {
         // Buscar UserXP
         UserXP userXP = userXPRepository.findByUserId(childId)
                 .orElseThrow(() -> new ResourceNotFoundException("UserXP não encontrado"));
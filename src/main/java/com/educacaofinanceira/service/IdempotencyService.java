@@ -0,0 +1,328 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.model.IdempotencyRecord;
+import com.educacaofinanceira.repository.IdempotencyRecordRepository;
+import com.educacaofinanceira.util.ExpiringCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Registro de Idempotency-Key das rotas que movimentam moedas
+ *
+ * - Cache em memória (limitado) na frente da tabela idempotency_keys
+ * - Repetições concorrentes na mesma instância aguardam a primeira (CompletableFuture)
+ * - Entre instâncias, o registro "em andamento" (statusCode null) impede a execução dupla
+ * - O dono renova o lease do registro em andamento (heartbeat em thread própria, fora do agendador
+ *   compartilhado); outra instância só assume o registro depois que o lease vence
+ * - Resposta produzida mas não gravada (falha no UPDATE): o registro continua em andamento,
+ *   com lease renovado, até a gravação ter sucesso - a operação nunca é executada de novo
+ * - Chave escopada por usuário: clientes diferentes podem repetir o mesmo valor
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ExpiringCache<String, StoredResponse> responses;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<UUID, Boolean> owned = new ConcurrentHashMap<>();
+    private final Map<UUID, StoredResponse> unsaved = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration lease;
+    private final int purgeBatchSize;
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter inProgress;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.cache-size:10000}") Integer cacheSize,
+                              @Value("${idempotency.ttl-hours:24}") Long ttlHours,
+                              @Value("${idempotency.wait-timeout-seconds:30}") Long waitTimeoutSeconds,
+                              @Value("${idempotency.lease-seconds:30}") Long leaseSeconds,
+                              @Value("${idempotency.heartbeat-seconds:10}") Long heartbeatSeconds,
+                              @Value("${idempotency.purge-batch-size:1000}") Integer purgeBatchSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.responses = new ExpiringCache<>(cacheSize);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeout = Duration.ofSeconds(waitTimeoutSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.purgeBatchSize = purgeBatchSize;
+
+        this.executed = requests(meterRegistry, "executed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.inProgress = requests(meterRegistry, "in_progress");
+        Gauge.builder("kidscoin.idempotency.in_flight", inFlight, Map::size).register(meterRegistry);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("idempotency-heartbeat-");
+        threadFactory.setDaemon(true);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.heartbeat.scheduleWithFixedDelay(this::renewLeases, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+    }
+
+    /**
+     * Reivindica a chave antes de executar a requisição
+     * - REPLAY: já existe resposta registrada (ou a requisição concorrente terminou enquanto aguardava)
+     * - OWNER: esta requisição deve executar e depois chamar complete() ou abandon()
+     * - IN_PROGRESS: outra instância está executando (ou a espera excedeu o limite)
+     */
+    public Claim claim(UUID userId, String key, String requestHash) {
+        String scope = userId + ":" + key;
+
+        while (true) {
+            StoredResponse cached = responses.get(scope);
+            if (cached != null) {
+                replayed.increment();
+                return Claim.replay(cached);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scope, mine);
+
+            if (running != null) {
+                // Repetição concorrente nesta instância: aguarda o resultado da primeira
+                StoredResponse result;
+                try {
+                    result = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    inProgress.increment();
+                    return Claim.inProgress();
+                } catch (ExecutionException e) {
+                    result = null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    inProgress.increment();
+                    return Claim.inProgress();
+                }
+
+                if (result != null) {
+                    replayed.increment();
+                    return Claim.replay(result);
+                }
+                // A primeira foi abandonada (erro 5xx): tenta reivindicar de novo
+                continue;
+            }
+
+            try {
+                Claim claim = claimStored(scope, userId, key, requestHash, mine);
+                if (claim.outcome() != Outcome.OWNER) {
+                    finish(scope, mine, claim.response());
+                }
+                return claim;
+            } catch (RuntimeException e) {
+                finish(scope, mine, null);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Registra a resposta e libera as repetições que estavam aguardando
+     * Não lança exceção: se a gravação falhar, o heartbeat tenta de novo (o lease segue renovado)
+     */
+    public void complete(Claim claim, StoredResponse response) {
+        StoredResponse stored = new StoredResponse(response.status(), response.contentType(),
+                response.body(), claim.requestHash());
+        responses.put(claim.scope(), stored, ttl);
+        executed.increment();
+
+        try {
+            unsaved.put(claim.recordId(), stored);
+            owned.remove(claim.recordId());
+            save(claim.recordId(), stored);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar a resposta da Idempotency-Key {} (nova tentativa no heartbeat): {}",
+                    claim.scope(), e.getMessage());
+        } finally {
+            finish(claim.scope(), inFlight.get(claim.scope()), stored);
+        }
+    }
+
+    /**
+     * Descarta a reivindicação quando nenhuma resposta foi produzida (erro 5xx ou falha na cadeia):
+     * a próxima repetição executa de novo
+     */
+    public void abandon(Claim claim) {
+        try {
+            idempotencyRecordRepository.deleteById(claim.recordId());
+        } catch (RuntimeException e) {
+            // Sem o DELETE, o registro será assumido quando o lease vencer
+            log.warn("Falha ao descartar Idempotency-Key {}: {}", claim.scope(), e.getMessage());
+        } finally {
+            owned.remove(claim.recordId());
+            finish(claim.scope(), inFlight.get(claim.scope()), null);
+        }
+    }
+
+    /**
+     * Remove registros expirados em lotes
+     * Executado a cada hora
+     */
+    @Scheduled(cron = "0 45 * * * *")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+
+        do {
+            deleted = idempotencyRecordRepository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        responses.purgeExpired();
+
+        if (total > 0) {
+            log.info("Removidos {} registros de Idempotency-Key expirados", total);
+        }
+    }
+
+    // Heartbeat: regrava respostas pendentes e renova o lease dos registros em andamento desta instância
+    private void renewLeases() {
+        try {
+            unsaved.forEach(this::save);
+
+            if (!owned.isEmpty() || !unsaved.isEmpty()) {
+                List<UUID> ids = new ArrayList<>(owned.keySet());
+                ids.addAll(unsaved.keySet());
+                idempotencyRecordRepository.renewLeases(ids, LocalDateTime.now().plus(lease));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao renovar leases de Idempotency-Key: {}", e.getMessage());
+        }
+    }
+
+    private void save(UUID recordId, StoredResponse stored) {
+        idempotencyRecordRepository.complete(recordId, stored.status(), stored.contentType(), stored.body());
+        unsaved.remove(recordId);
+    }
+
+    private Claim owner(String scope, UUID recordId, String requestHash) {
+        owned.put(recordId, Boolean.TRUE);
+        return Claim.owner(scope, recordId, requestHash);
+    }
+
+    // Consulta a tabela; se não houver registro válido, insere um "em andamento"
+    private Claim claimStored(String scope, UUID userId, String key, String requestHash,
+                              CompletableFuture<StoredResponse> mine) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = idempotencyRecordRepository
+                .findByUserIdAndIdempotencyKey(userId, key)
+                .orElse(null);
+
+        if (record != null && record.getExpiresAt().isBefore(now)) {
+            idempotencyRecordRepository.deleteById(record.getId());
+            record = null;
+        }
+
+        if (record != null) {
+            if (record.getStatusCode() != null) {
+                StoredResponse stored = new StoredResponse(record.getStatusCode(), record.getContentType(),
+                        record.getResponseBody(), record.getRequestHash());
+                responses.put(scope, stored, record.getExpiresAt().atZone(ZoneId.systemDefault())
+                        .toInstant().toEpochMilli());
+                replayed.increment();
+                return Claim.replay(stored);
+            }
+
+            // Em andamento em outra instância; assume só se o dono parou de renovar o lease (caiu)
+            if (idempotencyRecordRepository.claimExpiredLease(record.getId(), requestHash, now, now.plus(lease)) == 1) {
+                return owner(scope, record.getId(), requestHash);
+            }
+            inProgress.increment();
+            return Claim.inProgress();
+        }
+
+        IdempotencyRecord pending = new IdempotencyRecord();
+        pending.setUserId(userId);
+        pending.setIdempotencyKey(key);
+        pending.setRequestHash(requestHash);
+        pending.setCreatedAt(now);
+        pending.setExpiresAt(now.plus(ttl));
+        pending.setLeaseExpiresAt(now.plus(lease));
+
+        try {
+            pending = idempotencyRecordRepository.saveAndFlush(pending);
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância inseriu a mesma chave ao mesmo tempo
+            inProgress.increment();
+            return Claim.inProgress();
+        }
+
+        return owner(scope, pending.getId(), requestHash);
+    }
+
+    private void finish(String scope, CompletableFuture<StoredResponse> future, StoredResponse result) {
+        if (future != null) {
+            inFlight.remove(scope, future);
+            future.complete(result);
+        }
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("kidscoin.idempotency.requests")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public enum Outcome {
+        OWNER,
+        REPLAY,
+        IN_PROGRESS
+    }
+
+    /**
+     * Resultado de claim(); recordId/scope só existem para OWNER, response só para REPLAY
+     */
+    public record Claim(Outcome outcome, String scope, UUID recordId, String requestHash,
+                        StoredResponse response) {
+
+        static Claim owner(String scope, UUID recordId, String requestHash) {
+            return new Claim(Outcome.OWNER, scope, recordId, requestHash, null);
+        }
+
+        static Claim replay(StoredResponse response) {
+            return new Claim(Outcome.REPLAY, null, null, null, response);
+        }
+
+        static Claim inProgress() {
+            return new Claim(Outcome.IN_PROGRESS, null, null, null, null);
+        }
+    }
+
+    /**
+     * Resposta registrada (requestHash identifica a requisição original)
+     */
+    public record StoredResponse(int status, String contentType, String body, String requestHash) {
+    }
+}
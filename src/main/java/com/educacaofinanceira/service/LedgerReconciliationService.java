@@ -0,0 +1,356 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.dto.response.TransactionResponse;
+import com.educacaofinanceira.model.ReconciliationDiscrepancy;
+import com.educacaofinanceira.model.ReconciliationRun;
+import com.educacaofinanceira.model.Wallet;
+import com.educacaofinanceira.model.enums.DiscrepancyType;
+import com.educacaofinanceira.model.enums.ReconciliationStatus;
+import com.educacaofinanceira.model.enums.TransactionType;
+import com.educacaofinanceira.repository.ReconciliationDiscrepancyRepository;
+import com.educacaofinanceira.repository.ReconciliationRunRepository;
+import com.educacaofinanceira.repository.TransactionRepository;
+import com.educacaofinanceira.repository.WalletHoldRepository;
+import com.educacaofinanceira.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Reconciliação do ledger das carteiras
+ *
+ * Para cada carteira, percorre as transações em ordem cronológica e verifica:
+ * - encadeamento: balanceBefore == balanceAfter da transação anterior (a primeira parte de 0)
+ * - valor: balanceAfter == balanceBefore +/- amount
+ * - carteira: balance, totalEarned e totalSpent batem com o ledger
+ *
+ * - Carteiras em lotes (keyset por ID), verificadas em paralelo num ForkJoinPool dedicado
+ * - Cada carteira é lida numa transação curta (REPEATABLE READ: carteira e ledger do mesmo snapshot)
+ * - Checkpoint gravado após cada lote: execução interrompida é retomada de onde parou
+ */
+@Slf4j
+@Service
+public class LedgerReconciliationService {
+
+    // Abaixo disso, o RecursiveTask verifica as carteiras sequencialmente
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final WalletHoldRepository walletHoldRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter walletsCounter;
+    private final Counter transactionsCounter;
+    private final Timer runTimer;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final int parallelism;
+    private final int chunkSize;
+    private final int maxDiscrepanciesPerWallet;
+
+    public LedgerReconciliationService(WalletRepository walletRepository,
+                                       TransactionRepository transactionRepository,
+                                       ReconciliationRunRepository runRepository,
+                                       ReconciliationDiscrepancyRepository discrepancyRepository,
+                                       WalletHoldRepository walletHoldRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${reconciliation.parallelism:4}") Integer parallelism,
+                                       @Value("${reconciliation.chunk-size:500}") Integer chunkSize,
+                                       @Value("${reconciliation.max-discrepancies-per-wallet:50}") Integer maxDiscrepanciesPerWallet) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.walletHoldRepository = walletHoldRepository;
+        this.meterRegistry = meterRegistry;
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxDiscrepanciesPerWallet = maxDiscrepanciesPerWallet;
+
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setReadOnly(true);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+
+        this.walletsCounter = Counter.builder("kidscoin.reconciliation.wallets").register(meterRegistry);
+        this.transactionsCounter = Counter.builder("kidscoin.reconciliation.transactions").register(meterRegistry);
+        this.runTimer = Timer.builder("kidscoin.reconciliation.duration").register(meterRegistry);
+    }
+
+    /**
+     * Execução noturna (retoma uma execução interrompida, se houver)
+     */
+    @Scheduled(cron = "${reconciliation.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Executa a reconciliação; retorna a execução ou null se já houver uma em andamento
+     */
+    public ReconciliationRun run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Reconciliação já em andamento - ignorando");
+            return null;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ReconciliationRun run = startOrResume();
+
+        try {
+            log.info("Reconciliação {} iniciada (checkpoint: {})", run.getId(), run.getLastWalletId());
+
+            List<UUID> walletIds;
+            do {
+                walletIds = run.getLastWalletId() == null
+                        ? walletRepository.findFirstIds(chunkSize)
+                        : walletRepository.findIdsAfter(run.getLastWalletId(), chunkSize);
+
+                if (!walletIds.isEmpty()) {
+                    List<WalletResult> results = pool.invoke(new VerifyWalletsTask(walletIds));
+                    run = checkpoint(run, walletIds.get(walletIds.size() - 1), results);
+                }
+            } while (walletIds.size() == chunkSize);
+
+            run = finish(run, ReconciliationStatus.COMPLETED, null);
+            log.info("Reconciliação {} concluída: {} carteiras, {} transações, {} divergências",
+                    run.getId(), run.getWalletsChecked(), run.getTransactionsChecked(), run.getDiscrepancies());
+            return run;
+        } catch (RuntimeException e) {
+            log.error("Reconciliação {} falhou", run.getId(), e);
+            return finish(run, ReconciliationStatus.FAILED, e.getMessage());
+        } finally {
+            sample.stop(runTimer);
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    private ReconciliationRun startOrResume() {
+        return writeTemplate.execute(status -> runRepository
+                .findFirstByStatusOrderByStartedAtDesc(ReconciliationStatus.RUNNING)
+                .orElseGet(() -> {
+                    ReconciliationRun run = new ReconciliationRun();
+                    run.setStatus(ReconciliationStatus.RUNNING);
+                    return runRepository.save(run);
+                }));
+    }
+
+    // Grava as divergências do lote e avança o checkpoint na mesma transação
+    private ReconciliationRun checkpoint(ReconciliationRun run, UUID lastWalletId, List<WalletResult> results) {
+        List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+        long transactions = 0;
+
+        for (WalletResult result : results) {
+            transactions += result.transactions();
+            for (ReconciliationDiscrepancy discrepancy : result.discrepancies()) {
+                discrepancy.setRunId(run.getId());
+                discrepancies.add(discrepancy);
+            }
+        }
+
+        long checkedTransactions = transactions;
+        walletsCounter.increment(results.size());
+        transactionsCounter.increment(checkedTransactions);
+        countByType(discrepancies);
+
+        return writeTemplate.execute(status -> {
+            discrepancyRepository.saveAll(discrepancies);
+
+            ReconciliationRun current = runRepository.findById(run.getId()).orElseThrow();
+            current.setLastWalletId(lastWalletId);
+            current.setWalletsChecked(current.getWalletsChecked() + results.size());
+            current.setTransactionsChecked(current.getTransactionsChecked() + checkedTransactions);
+            current.setDiscrepancies(current.getDiscrepancies() + discrepancies.size());
+            return runRepository.save(current);
+        });
+    }
+
+    private ReconciliationRun finish(ReconciliationRun run, ReconciliationStatus status, String error) {
+        return writeTemplate.execute(tx -> {
+            ReconciliationRun current = runRepository.findById(run.getId()).orElseThrow();
+            current.setStatus(status);
+            current.setFinishedAt(LocalDateTime.now());
+            if (error != null) {
+                current.setError(error.length() > 500 ? error.substring(0, 500) : error);
+            }
+            return runRepository.save(current);
+        });
+    }
+
+    private void countByType(List<ReconciliationDiscrepancy> discrepancies) {
+        Map<DiscrepancyType, Integer> counts = new EnumMap<>(DiscrepancyType.class);
+        discrepancies.forEach(d -> counts.merge(d.getType(), 1, Integer::sum));
+        counts.forEach((type, count) -> Counter.builder("kidscoin.reconciliation.discrepancies")
+                .tag("type", type.name())
+                .register(meterRegistry)
+                .increment(count));
+    }
+
+    /**
+     * Verifica uma carteira numa transação curta, somente leitura
+     */
+    private WalletResult verify(UUID walletId) {
+        return snapshotTemplate.execute(status -> {
+            Wallet wallet = walletRepository.findById(walletId).orElse(null);
+            if (wallet == null) {
+                // Removida entre a listagem e a verificação
+                return new WalletResult(0, List.of());
+            }
+
+            LedgerCheck check = new LedgerCheck(walletId);
+            try (Stream<TransactionResponse> rows = transactionRepository.streamLedger(walletId)) {
+                Iterator<TransactionResponse> iterator = rows.iterator();
+                List<TransactionResponse> sameInstant = new ArrayList<>();
+
+                // Transações com o mesmo createdAt (ex.: creditBatch) são ordenadas pelo encadeamento
+                while (iterator.hasNext()) {
+                    TransactionResponse row = iterator.next();
+                    if (!sameInstant.isEmpty() && !row.getCreatedAt().equals(sameInstant.get(0).getCreatedAt())) {
+                        check.acceptAll(sameInstant);
+                        sameInstant.clear();
+                    }
+                    sameInstant.add(row);
+                }
+                check.acceptAll(sameInstant);
+            }
+
+            check.compare(DiscrepancyType.BALANCE_MISMATCH, check.balance, wallet.getBalance());
+            check.compare(DiscrepancyType.TOTAL_EARNED_MISMATCH, check.earned, wallet.getTotalEarned());
+            check.compare(DiscrepancyType.TOTAL_SPENT_MISMATCH, check.spent, wallet.getTotalSpent());
+            check.compare(DiscrepancyType.HELD_MISMATCH,
+                    walletHoldRepository.sumActiveByWalletId(walletId), wallet.getHeld());
+
+            return new WalletResult(check.transactions, check.discrepancies);
+        });
+    }
+
+    private record WalletResult(long transactions, List<ReconciliationDiscrepancy> discrepancies) {
+    }
+
+    // Divide o lote de carteiras entre as threads do pool
+    private final class VerifyWalletsTask extends RecursiveTask<List<WalletResult>> {
+
+        private final List<UUID> walletIds;
+
+        VerifyWalletsTask(List<UUID> walletIds) {
+            this.walletIds = walletIds;
+        }
+
+        @Override
+        protected List<WalletResult> compute() {
+            if (walletIds.size() <= SEQUENTIAL_THRESHOLD) {
+                List<WalletResult> results = new ArrayList<>(walletIds.size());
+                for (UUID walletId : walletIds) {
+                    results.add(verify(walletId));
+                }
+                return results;
+            }
+
+            int middle = walletIds.size() / 2;
+            VerifyWalletsTask left = new VerifyWalletsTask(walletIds.subList(0, middle));
+            VerifyWalletsTask right = new VerifyWalletsTask(walletIds.subList(middle, walletIds.size()));
+            left.fork();
+
+            List<WalletResult> results = new ArrayList<>(right.compute());
+            results.addAll(0, left.join());
+            return results;
+        }
+    }
+
+    // Estado da verificação de uma carteira
+    private final class LedgerCheck {
+
+        private final UUID walletId;
+        private final List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+        private long balance;
+        private long earned;
+        private long spent;
+        private long transactions;
+
+        LedgerCheck(UUID walletId) {
+            this.walletId = walletId;
+        }
+
+        // Aceita transações do mesmo instante, escolhendo sempre a que continua o saldo atual
+        void acceptAll(List<TransactionResponse> rows) {
+            List<TransactionResponse> pending = new ArrayList<>(rows);
+            while (!pending.isEmpty()) {
+                TransactionResponse next = pending.stream()
+                        .filter(row -> row.getBalanceBefore() == balance)
+                        .findFirst()
+                        .orElse(pending.get(0));
+                pending.remove(next);
+                accept(next);
+            }
+        }
+
+        void accept(TransactionResponse row) {
+            transactions++;
+
+            if (row.getBalanceBefore() != balance) {
+                add(DiscrepancyType.CHAIN_BREAK, row.getId(), balance, row.getBalanceBefore());
+            }
+
+            long expectedAfter = row.getType() == TransactionType.CREDIT
+                    ? row.getBalanceBefore() + row.getAmount()
+                    : row.getBalanceBefore() - row.getAmount();
+            if (row.getBalanceAfter() != expectedAfter) {
+                add(DiscrepancyType.AMOUNT_MISMATCH, row.getId(), expectedAfter, row.getBalanceAfter());
+            }
+
+            if (row.getType() == TransactionType.CREDIT) {
+                earned += row.getAmount();
+            } else {
+                spent += row.getAmount();
+            }
+
+            // Continua a partir do saldo registrado (uma quebra não gera divergências em cascata)
+            balance = row.getBalanceAfter();
+        }
+
+        void compare(DiscrepancyType type, long expected, long actual) {
+            if (expected != actual) {
+                add(type, null, expected, actual);
+            }
+        }
+
+        private void add(DiscrepancyType type, UUID transactionId, long expected, long actual) {
+            if (discrepancies.size() >= maxDiscrepanciesPerWallet) {
+                return;
+            }
+
+            ReconciliationDiscrepancy discrepancy = new ReconciliationDiscrepancy();
+            discrepancy.setWalletId(walletId);
+            discrepancy.setTransactionId(transactionId);
+            discrepancy.setType(type);
+            discrepancy.setExpected(expected);
+            discrepancy.setActual(actual);
+            discrepancies.add(discrepancy);
+        }
+    }
+}
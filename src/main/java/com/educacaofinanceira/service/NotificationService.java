@@ -3,12 +3,12 @@ package com.educacaofinanceira.service;
 import com.educacaofinanceira.dto.response.NotificationResponse;
 import com.educacaofinanceira.exception.ResourceNotFoundException;
 import com.educacaofinanceira.model.Notification;
-import com.educacaofinanceira.model.User;
 import com.educacaofinanceira.model.enums.NotificationType;
 import com.educacaofinanceira.model.enums.ReferenceType;
 import com.educacaofinanceira.repository.NotificationRepository;
 import com.educacaofinanceira.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,23 +26,23 @@ public class NotificationService {
 
     /**
      * Cria uma nova notificação para o usuário
+     * Usuário referenciado sem SELECT (chamadores já validaram o ID)
      */
     @Transactional
     public void create(UUID userId, NotificationType type, String title,
                       String message, ReferenceType referenceType, UUID referenceId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(type);
-        notification.setTitle(title);
-        notification.setMessage(message);
-        notification.setReferenceType(referenceType);
-        notification.setReferenceId(referenceId);
-        notification.setIsRead(false);
+        notificationRepository.save(newNotification(
+                new NewNotification(userId, type, title, message, referenceType, referenceId)));
+    }
 
-        notificationRepository.save(notification);
+    /**
+     * Cria várias notificações de uma vez (INSERTs em lote JDBC)
+     */
+    @Transactional
+    public void createAll(List<NewNotification> notifications) {
+        notificationRepository.saveAll(notifications.stream()
+                .map(this::newNotification)
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -95,4 +95,29 @@ public class NotificationService {
     public Long countUnread(UUID userId) {
         return notificationRepository.countByUserIdAndIsRead(userId, false);
     }
+
+    private Notification newNotification(NewNotification request) {
+        Notification notification = new Notification();
+        notification.setUser(userRepository.getReferenceById(request.getUserId()));
+        notification.setType(request.getType());
+        notification.setTitle(request.getTitle());
+        notification.setMessage(request.getMessage());
+        notification.setReferenceType(request.getReferenceType());
+        notification.setReferenceId(request.getReferenceId());
+        notification.setIsRead(false);
+        return notification;
+    }
+
+    /**
+     * Notificação a ser criada por createAll
+     */
+    @Value
+    public static class NewNotification {
+        UUID userId;
+        NotificationType type;
+        String title;
+        String message;
+        ReferenceType referenceType;
+        UUID referenceId;
+    }
 }
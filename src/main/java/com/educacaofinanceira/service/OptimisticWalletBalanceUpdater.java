@@ -0,0 +1,116 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.exception.ResourceNotFoundException;
+import com.educacaofinanceira.exception.ServiceUnavailableException;
+import com.educacaofinanceira.model.Wallet;
+import com.educacaofinanceira.repository.WalletRepository;
+import com.educacaofinanceira.repository.WalletRepository.WalletVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Concorrência otimista: lê a carteira sem lock e aplica um UPDATE condicionado à versão lida
+ *
+ * - Conflito (0 linhas afetadas): relê e tenta de novo, com backoff exponencial + jitter
+ * - Um UPDATE sem efeito não aborta a transação externa (ao contrário de OptimisticLockException),
+ *   então o retry acontece dentro da mesma transação (requer READ COMMITTED, o padrão do PostgreSQL)
+ * - Tentativas esgotadas: 503 (ServiceUnavailableException)
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.concurrency-mode", havingValue = "optimistic")
+public class OptimisticWalletBalanceUpdater implements WalletBalanceUpdater {
+
+    private final WalletRepository walletRepository;
+    private final PersistenceContextRefresher persistenceContextRefresher;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Counter conflicts;
+    private final Counter exhausted;
+
+    public OptimisticWalletBalanceUpdater(WalletRepository walletRepository,
+                                          PersistenceContextRefresher persistenceContextRefresher,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${wallet.optimistic.max-attempts:5}") Integer maxAttempts,
+                                          @Value("${wallet.optimistic.backoff-millis:10}") Long backoffMillis) {
+        this.walletRepository = walletRepository;
+        this.persistenceContextRefresher = persistenceContextRefresher;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+        this.conflicts = Counter.builder("kidscoin.wallet.optimistic.conflicts").register(meterRegistry);
+        this.exhausted = Counter.builder("kidscoin.wallet.optimistic.exhausted").register(meterRegistry);
+    }
+
+    @Override
+    public BalanceChange credit(UUID childId, Integer amount) {
+        for (int attempt = 1; ; attempt++) {
+            WalletVersion wallet = read(childId);
+
+            int updated = walletRepository.creditIfVersion(
+                    wallet.getId(), wallet.getVersion(), amount, LocalDateTime.now());
+            if (updated == 1) {
+                return applied(wallet, wallet.getBalance() + amount);
+            }
+
+            conflict(attempt);
+        }
+    }
+
+    @Override
+    public BalanceChange debit(UUID childId, Integer amount) {
+        for (int attempt = 1; ; attempt++) {
+            WalletVersion wallet = read(childId);
+
+            // Validar saldo disponível (a versão garante que o saldo lido ainda é o atual no UPDATE)
+            int available = wallet.getBalance() - wallet.getHeld();
+            if (available < amount) {
+                throw new IllegalArgumentException("Saldo insuficiente. Saldo disponível: " +
+                        available + " moedas");
+            }
+
+            int updated = walletRepository.debitIfVersion(
+                    wallet.getId(), wallet.getVersion(), amount, LocalDateTime.now());
+            if (updated == 1) {
+                return applied(wallet, wallet.getBalance() - amount);
+            }
+
+            conflict(attempt);
+        }
+    }
+
+    private WalletVersion read(UUID childId) {
+        return walletRepository.findVersionByChildId(childId)
+                .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
+    }
+
+    private BalanceChange applied(WalletVersion wallet, Integer balanceAfter) {
+        // Carteira já carregada nesta transação não pode ficar com o saldo antigo
+        persistenceContextRefresher.refreshIfLoaded(Wallet.class, wallet.getId());
+
+        return new BalanceChange(wallet.getId(), wallet.getBalance(), balanceAfter);
+    }
+
+    private void conflict(int attempt) {
+        conflicts.increment();
+
+        if (attempt >= maxAttempts) {
+            exhausted.increment();
+            throw new ServiceUnavailableException("Carteira com muitas atualizações simultâneas. Tente novamente");
+        }
+
+        // Backoff exponencial com jitter: base, 2x base, 4x base...
+        long delay = backoffMillis << (attempt - 1);
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Atualização da carteira interrompida");
+        }
+    }
+}
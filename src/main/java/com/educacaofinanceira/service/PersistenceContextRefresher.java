@@ -0,0 +1,25 @@
+package com.educacaofinanceira.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+/**
+ * UPDATEs em JPQL/SQL nativo não passam pelo contexto de persistência:
+ * se a entidade já estiver carregada na transação atual, recarrega para não ficar desatualizada
+ * (sem custo quando não está carregada - getReference não consulta o banco)
+ */
+@Component
+public class PersistenceContextRefresher {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void refreshIfLoaded(Class<?> entityClass, Object id) {
+        Object managed = entityManager.getReference(entityClass, id);
+        if (Hibernate.isInitialized(managed)) {
+            entityManager.refresh(managed);
+        }
+    }
+}
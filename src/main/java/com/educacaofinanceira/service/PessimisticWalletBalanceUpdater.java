@@ -0,0 +1,55 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.exception.ResourceNotFoundException;
+import com.educacaofinanceira.model.Wallet;
+import com.educacaofinanceira.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Lock pessimista: a linha da carteira fica bloqueada do SELECT ... FOR UPDATE até o commit
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.concurrency-mode", havingValue = "pessimistic", matchIfMissing = true)
+public class PessimisticWalletBalanceUpdater implements WalletBalanceUpdater {
+
+    private final WalletRepository walletRepository;
+
+    @Override
+    public BalanceChange credit(UUID childId, Integer amount) {
+        Wallet wallet = lock(childId);
+
+        Integer balanceBefore = wallet.getBalance();
+        wallet.setBalance(balanceBefore + amount);
+        wallet.setTotalEarned(wallet.getTotalEarned() + amount);
+
+        return new BalanceChange(wallet.getId(), balanceBefore, wallet.getBalance());
+    }
+
+    @Override
+    public BalanceChange debit(UUID childId, Integer amount) {
+        Wallet wallet = lock(childId);
+
+        // Validar saldo disponível (moedas reservadas não podem ser gastas)
+        int available = wallet.getBalance() - wallet.getHeld();
+        if (available < amount) {
+            throw new IllegalArgumentException("Saldo insuficiente. Saldo disponível: " +
+                    available + " moedas");
+        }
+
+        Integer balanceBefore = wallet.getBalance();
+        wallet.setBalance(balanceBefore - amount);
+        wallet.setTotalSpent(wallet.getTotalSpent() + amount);
+
+        return new BalanceChange(wallet.getId(), balanceBefore, wallet.getBalance());
+    }
+
+    private Wallet lock(UUID childId) {
+        return walletRepository.findByChildIdWithLock(childId)
+                .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.model.ReconciliationDiscrepancy;
+import com.educacaofinanceira.model.ReconciliationRun;
+import com.educacaofinanceira.repository.ReconciliationDiscrepancyRepository;
+import com.educacaofinanceira.repository.ReconciliationRunRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Endpoint do Actuator (/actuator/reconciliation)
+ * - GET: relatório da última execução (com as primeiras divergências)
+ * - POST: dispara uma execução em background
+ */
+@Component
+@Endpoint(id = "reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationEndpoint {
+
+    private static final int REPORT_LIMIT = 100;
+
+    private final LedgerReconciliationService reconciliationService;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        ReconciliationRun run = runRepository.findFirstByOrderByStartedAtDesc().orElse(null);
+        result.put("lastRun", run);
+
+        if (run != null) {
+            List<ReconciliationDiscrepancy> discrepancies = discrepancyRepository
+                    .findByRunIdOrderByCreatedAtAsc(run.getId(), PageRequest.of(0, REPORT_LIMIT));
+            result.put("discrepancies", discrepancies);
+        }
+
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, String> trigger() {
+        CompletableFuture.runAsync(reconciliationService::run);
+        return Map.of("status", "started");
+    }
+}
@@ -1,157 +1,312 @@
 package com.educacaofinanceira.service;
 
-import com.educacaofinanceira.model.Task;
-import com.educacaofinanceira.model.TaskAssignment;
-import com.educacaofinanceira.model.User;
-import com.educacaofinanceira.model.enums.NotificationType;
-import com.educacaofinanceira.model.enums.RecurrenceType;
-import com.educacaofinanceira.model.enums.ReferenceType;
-import com.educacaofinanceira.model.enums.TaskStatus;
+import com.educacaofinanceira.model.Family;
+import com.educacaofinanceira.model.RecurringTaskRun;
+import com.educacaofinanceira.model.enums.RecurringTaskRunStatus;
+import com.educacaofinanceira.repository.FamilyRepository;
+import com.educacaofinanceira.repository.RecurringTaskRunRepository;
 import com.educacaofinanceira.repository.TaskAssignmentRepository;
-import com.educacaofinanceira.repository.TaskRepository;
-import com.educacaofinanceira.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.Arrays;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Serviço responsável por criar automaticamente TaskAssignments
  * para tarefas recorrentes baseado na configuração de cada tarefa.
  *
- * Executa diariamente à meia-noite (00:00).
+ * - Crianças-alvo gravadas na tarefa (task_recurring_targets)
+ * - Cada família é processada quando começa o seu dia local (Family.timeZone), numa faixa de horário
+ *   escolhida pelo hash do ID: a carga se espalha ao longo do dia em vez de concentrar na meia-noite
+ * - Famílias devidas divididas em partições (hash do ID), processadas em paralelo num pool limitado
+ * - Cada família em uma transação curta própria: marca o dia como processado e cria
+ *   assignments + notificações em um único INSERT ... SELECT
+ * - Falha transitória (deadlock, timeout) é repetida com backoff; falha definitiva afeta só a família
+ *   (a marcação é desfeita e a família volta na execução seguinte)
+ * - Resumo de cada execução com famílias devidas gravado em recurring_task_runs
+ *
+ * Executa a cada 15 minutos (family-schedule.cron).
  */
-@Service
-@RequiredArgsConstructor
 @Slf4j
+@Service
 public class RecurringTaskScheduler {
 
-    private final TaskRepository taskRepository;
     private final TaskAssignmentRepository taskAssignmentRepository;
-    private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final FamilyRepository familyRepository;
+    private final RecurringTaskRunRepository runRepository;
+    private final TransactionTemplate writeTemplate;
+    private final TransactionTemplate familyTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter assignmentsCounter;
+    private final Counter familiesCounter;
+    private final Counter failedFamiliesCounter;
+    private final Counter retriesCounter;
+    private final Timer runTimer;
+    private final AtomicInteger pendingFamilies = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final int parallelism;
+    private final int partitions;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final int slots;
+    private final int slotMinutes;
+    private final int maxFamiliesPerRun;
+
+    public RecurringTaskScheduler(TaskAssignmentRepository taskAssignmentRepository,
+                                  FamilyRepository familyRepository,
+                                  RecurringTaskRunRepository runRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${recurring-tasks.parallelism:4}") Integer parallelism,
+                                  @Value("${recurring-tasks.partitions:16}") Integer partitions,
+                                  @Value("${recurring-tasks.max-attempts:3}") Integer maxAttempts,
+                                  @Value("${recurring-tasks.backoff-millis:100}") Long backoffMillis,
+                                  @Value("${recurring-tasks.family-timeout-seconds:30}") Integer familyTimeoutSeconds,
+                                  @Value("${family-schedule.slots:16}") Integer slots,
+                                  @Value("${family-schedule.slot-minutes:15}") Integer slotMinutes,
+                                  @Value("${family-schedule.max-families-per-run:2000}") Integer maxFamiliesPerRun) {
+        this.taskAssignmentRepository = taskAssignmentRepository;
+        this.familyRepository = familyRepository;
+        this.runRepository = runRepository;
+        this.meterRegistry = meterRegistry;
+        this.parallelism = Math.max(1, parallelism);
+        this.partitions = Math.max(this.parallelism, partitions);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(1, backoffMillis);
+        this.slots = Math.max(1, slots);
+        this.slotMinutes = Math.max(1, slotMinutes);
+        this.maxFamiliesPerRun = Math.max(1, maxFamiliesPerRun);
+
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.familyTemplate = new TransactionTemplate(transactionManager);
+        this.familyTemplate.setTimeout(familyTimeoutSeconds);
+
+        this.assignmentsCounter = Counter.builder("kidscoin.recurring.assignments").register(meterRegistry);
+        this.familiesCounter = Counter.builder("kidscoin.recurring.families")
+                .tag("result", "ok")
+                .register(meterRegistry);
+        this.failedFamiliesCounter = Counter.builder("kidscoin.recurring.families")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.retriesCounter = Counter.builder("kidscoin.recurring.retries").register(meterRegistry);
+        this.runTimer = Timer.builder("kidscoin.recurring.duration").register(meterRegistry);
+        meterRegistry.gauge("kidscoin.recurring.families.pending", pendingFamilies);
+    }
 
     /**
-     * Job agendado que roda diariamente à meia-noite (00:00)
-     * Cria automaticamente assignments para tarefas recorrentes
+     * Job agendado que roda a cada 15 minutos
+     * Cria as assignments das famílias cujo dia local começou e cuja faixa de horário já passou
      */
-    @Scheduled(cron = "0 0 0 * * *") // Meia-noite todos os dias
-    @Transactional
+    @Scheduled(cron = "${family-schedule.cron:0 */15 * * * *}")
     public void createRecurringTaskAssignments() {
-        log.info("Iniciando criação de tarefas recorrentes para hoje: {}", LocalDate.now());
+        run();
+    }
+
+    /**
+     * Processa as famílias devidas; retorna a execução ou null se não houver famílias
+     * (ou se já houver uma execução em andamento)
+     * Acima de family-schedule.max-families-per-run, o restante fica para a execução seguinte
+     */
+    public RecurringTaskRun run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Criação de tarefas recorrentes já em andamento - ignorando");
+            return null;
+        }
 
-        LocalDate today = LocalDate.now();
-        DayOfWeek currentDayOfWeek = today.getDayOfWeek();
+        ExecutorService pool = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        RecurringTaskRun run = null;
 
-        // Buscar todas as tarefas recorrentes ativas
-        List<Task> recurringTasks = taskRepository.findActiveRecurringTasks(TaskStatus.ACTIVE, today);
+        try {
+            List<Family> families = familyRepository.findDueForRecurringTasks(slots, slotMinutes, maxFamiliesPerRun);
+            if (families.isEmpty()) {
+                return null;
+            }
 
-        log.info("Encontradas {} tarefas recorrentes ativas", recurringTasks.size());
+            log.info("Iniciando criação de tarefas recorrentes para {} famílias", families.size());
+            pendingFamilies.set(families.size());
+            run = start(LocalDate.now());
+            pool = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("recurring-tasks-"));
 
-        int assignmentsCreated = 0;
+            List<Future<PartitionResult>> futures = new ArrayList<>();
+            for (List<Family> partition : partition(families)) {
+                futures.add(pool.submit(() -> processPartition(partition)));
+            }
 
-        for (Task task : recurringTasks) {
-            // Verificar se a tarefa deve ser criada hoje baseado na configuração
-            if (!shouldCreateAssignmentToday(task, currentDayOfWeek)) {
-                log.debug("Tarefa '{}' não deve ser criada hoje ({})", task.getTitle(), currentDayOfWeek);
-                continue;
+            PartitionResult total = new PartitionResult(0, 0, 0, null);
+            for (Future<PartitionResult> future : futures) {
+                total = total.plus(future.get());
             }
 
-            // Buscar todas as crianças que deveriam receber essa tarefa
-            // (assumindo que queremos buscar os assignments existentes para saber quais crianças)
-            List<TaskAssignment> existingAssignments = taskAssignmentRepository.findByTaskId(task.getId());
-
-            // Obter IDs únicos das crianças que já receberam essa tarefa
-            List<UUID> childrenIds = existingAssignments.stream()
-                    .map(assignment -> assignment.getAssignedToChild().getId())
-                    .distinct()
-                    .toList();
-
-            // Para cada criança, verificar se já tem assignment de hoje e criar se necessário
-            for (UUID childId : childrenIds) {
-                if (shouldCreateAssignmentForChild(task.getId(), childId)) {
-                    createAssignment(task, childId);
-                    assignmentsCreated++;
-                }
+            RecurringTaskRunStatus status = total.failed() == 0
+                    ? RecurringTaskRunStatus.COMPLETED
+                    : RecurringTaskRunStatus.PARTIAL;
+            run = finish(run, status, families.size(), total, total.error());
+            log.info("Criadas {} novas atribuições de tarefas recorrentes ({} famílias, {} com falha)",
+                    total.created(), families.size(), total.failed());
+            return run;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Criação de tarefas recorrentes interrompida", e);
+            return run == null ? null : finish(run, RecurringTaskRunStatus.FAILED, 0, null, "Interrompida");
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Criação de tarefas recorrentes falhou", e);
+            return run == null ? null : finish(run, RecurringTaskRunStatus.FAILED, 0, null, e.getMessage());
+        } finally {
+            sample.stop(runTimer);
+            if (pool != null) {
+                pool.shutdownNow();
             }
+            pendingFamilies.set(0);
+            running.set(false);
         }
-
-        log.info("Criadas {} novas atribuições de tarefas recorrentes", assignmentsCreated);
     }
 
-    /**
-     * Verifica se a tarefa deve ser criada hoje baseado no tipo de recorrência
-     */
-    private boolean shouldCreateAssignmentToday(Task task, DayOfWeek currentDayOfWeek) {
-        if (task.getRecurrenceType() == RecurrenceType.DAILY) {
-            // Tarefa diária sempre cria
-            return true;
+    // Distribui as famílias pelo hash do ID (a mesma família cai sempre na mesma partição)
+    private List<List<Family>> partition(List<Family> families) {
+        List<List<Family>> buckets = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            buckets.add(new ArrayList<>());
         }
+        for (Family family : families) {
+            buckets.get(Math.floorMod(family.getId().hashCode(), partitions)).add(family);
+        }
+        buckets.removeIf(List::isEmpty);
+        return buckets;
+    }
 
-        if (task.getRecurrenceType() == RecurrenceType.WEEKLY) {
-            // Verificar se hoje é um dos dias configurados
-            if (task.getRecurrenceDays() == null || task.getRecurrenceDays().isEmpty()) {
-                return false;
-            }
-
-            // Converter o dia atual para o formato esperado (MON, TUE, etc)
-            String todayCode = convertDayOfWeekToCode(currentDayOfWeek);
+    // Famílias da partição em sequência; a falha de uma não interrompe as demais
+    private PartitionResult processPartition(List<Family> families) {
+        int created = 0;
+        int failed = 0;
+        int retries = 0;
+        String firstError = null;
 
-            // Verificar se o dia atual está na lista de dias configurados
-            List<String> configuredDays = Arrays.asList(task.getRecurrenceDays().split(","));
-            return configuredDays.contains(todayCode);
+        for (Family family : families) {
+            FamilyResult result = processFamily(family);
+            retries += result.retries();
+            if (result.error() == null) {
+                created += result.created();
+                assignmentsCounter.increment(result.created());
+                familiesCounter.increment();
+            } else {
+                failed++;
+                failedFamiliesCounter.increment();
+                if (firstError == null) {
+                    firstError = "Família " + family.getId() + ": " + result.error();
+                }
+            }
+            pendingFamilies.decrementAndGet();
         }
 
-        return false;
+        return new PartitionResult(created, failed, retries, firstError);
     }
 
     /**
-     * Verifica se já existe um assignment PENDING ou COMPLETED criado hoje
-     * para evitar duplicatas
+     * Cria as assignments de uma família na própria transação, repetindo falhas transitórias
+     * com backoff exponencial + jitter
      */
-    private boolean shouldCreateAssignmentForChild(UUID taskId, UUID childId) {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-
-        boolean alreadyExists = taskAssignmentRepository.existsActiveAssignmentForTaskAndChildToday(
-                taskId, childId, startOfDay, endOfDay);
+    private FamilyResult processFamily(Family family) {
+        UUID familyId = family.getId();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Day day = localDay(family.getTimeZone());
+                Integer created = familyTemplate.execute(status -> {
+                    // Outra execução já processou o dia desta família
+                    if (familyRepository.claimRecurringRun(familyId, day.date()) == 0) {
+                        return 0;
+                    }
+                    return taskAssignmentRepository.createRecurringAssignments(familyId, day.date(), day.code(),
+                            day.startOfDay(), day.endOfDay(), LocalDateTime.now());
+                });
+                return new FamilyResult(created == null ? 0 : created, attempt - 1, null);
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts || !backoff(attempt)) {
+                    log.error("Tarefas recorrentes da família {} não criadas após {} tentativas", familyId, attempt, e);
+                    return new FamilyResult(0, attempt - 1, e.getMessage());
+                }
+                retriesCounter.increment();
+                log.warn("Falha transitória nas tarefas recorrentes da família {} (tentativa {}): {}",
+                        familyId, attempt, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Tarefas recorrentes da família {} não criadas", familyId, e);
+                return new FamilyResult(0, attempt - 1, e.getMessage());
+            }
+        }
+    }
 
-        return !alreadyExists; // Cria apenas se NÃO existir
+    // Retorna false se a thread foi interrompida durante a espera
+    private boolean backoff(int attempt) {
+        long delay = backoffMillis << (attempt - 1);
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
     /**
-     * Cria um novo TaskAssignment para a criança
+     * Dia local da família; início e fim convertidos para o horário do servidor (como created_at é gravado)
      */
-    private void createAssignment(Task task, UUID childId) {
-        User child = userRepository.findById(childId).orElse(null);
-
-        if (child == null) {
-            log.warn("Criança com ID {} não encontrada ao criar tarefa recorrente", childId);
-            return;
-        }
-
-        TaskAssignment assignment = new TaskAssignment();
-        assignment.setTask(task);
-        assignment.setAssignedToChild(child);
-        taskAssignmentRepository.save(assignment);
+    private Day localDay(String timeZone) {
+        ZoneId zone = ZoneId.of(timeZone);
+        ZoneId serverZone = ZoneId.systemDefault();
+        LocalDate today = LocalDate.now(zone);
+        return new Day(today, convertDayOfWeekToCode(today.getDayOfWeek()),
+                today.atStartOfDay(zone).withZoneSameInstant(serverZone).toLocalDateTime(),
+                today.plusDays(1).atStartOfDay(zone).withZoneSameInstant(serverZone).toLocalDateTime());
+    }
 
-        log.info("Criado assignment de tarefa recorrente '{}' para criança '{}'",
-                task.getTitle(), child.getFullName());
+    private RecurringTaskRun start(LocalDate today) {
+        return writeTemplate.execute(status -> {
+            RecurringTaskRun run = new RecurringTaskRun();
+            run.setRunDate(today);
+            run.setStatus(RecurringTaskRunStatus.RUNNING);
+            return runRepository.save(run);
+        });
+    }
 
-        // Notificar criança
-        notificationService.create(childId, NotificationType.TASK_ASSIGNED,
-                "Nova tarefa disponível",
-                "Você recebeu uma tarefa: " + task.getTitle(),
-                ReferenceType.TASK, assignment.getId());
+    private RecurringTaskRun finish(RecurringTaskRun run, RecurringTaskRunStatus status, int families,
+                                    PartitionResult total, String error) {
+        return writeTemplate.execute(tx -> {
+            RecurringTaskRun current = runRepository.findById(run.getId()).orElseThrow();
+            current.setStatus(status);
+            current.setFamilies((long) families);
+            if (total != null) {
+                current.setFamiliesFailed((long) total.failed());
+                current.setAssignmentsCreated((long) total.created());
+                current.setRetries((long) total.retries());
+            }
+            current.setFinishedAt(LocalDateTime.now());
+            if (error != null) {
+                current.setError(error.length() > 500 ? error.substring(0, 500) : error);
+            }
+            return runRepository.save(current);
+        });
     }
 
     /**
@@ -168,4 +323,18 @@ public class RecurringTaskScheduler {
             case SUNDAY -> "SUN";
         };
     }
+
+    private record Day(LocalDate date, String code, LocalDateTime startOfDay, LocalDateTime endOfDay) {
+    }
+
+    private record FamilyResult(int created, int retries, String error) {
+    }
+
+    private record PartitionResult(int created, int failed, int retries, String error) {
+
+        PartitionResult plus(PartitionResult other) {
+            return new PartitionResult(created + other.created, failed + other.failed, retries + other.retries,
+                    error != null ? error : other.error);
+        }
+    }
 }
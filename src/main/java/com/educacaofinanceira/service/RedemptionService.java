@@ -7,7 +7,6 @@ import com.educacaofinanceira.exception.UnauthorizedException;
 import com.educacaofinanceira.model.Redemption;
 import com.educacaofinanceira.model.Reward;
 import com.educacaofinanceira.model.User;
-import com.educacaofinanceira.model.Wallet;
 import com.educacaofinanceira.model.enums.NotificationType;
 import com.educacaofinanceira.model.enums.RedemptionStatus;
 import com.educacaofinanceira.model.enums.ReferenceType;
@@ -15,7 +14,7 @@ import com.educacaofinanceira.model.enums.UserRole;
 import com.educacaofinanceira.repository.RedemptionRepository;
 import com.educacaofinanceira.repository.RewardRepository;
 import com.educacaofinanceira.repository.UserRepository;
-import com.educacaofinanceira.repository.WalletRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,23 +30,27 @@ public class RedemptionService {
 
     private final RedemptionRepository redemptionRepository;
     private final RewardRepository rewardRepository;
-    private final WalletRepository walletRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final WalletService walletService;
     private final NotificationService notificationService;
 
     /**
      * Criança solicita resgate de recompensa
-     * Moedas SÃO debitadas IMEDIATAMENTE neste momento
+     * Moedas são RESERVADAS neste momento (indisponíveis, mas ainda não debitadas)
      */
     @Transactional
-    public RedemptionResponse requestRedemption(CreateRedemptionRequest request, User child) {
+    public RedemptionResponse requestRedemption(CreateRedemptionRequest request, AuthenticatedUser principal) {
+        // Buscar criança (entidade necessária para o resgate e as notificações)
+        User child = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+
         // Buscar recompensa
         Reward reward = rewardRepository.findById(request.getRewardId())
                 .orElseThrow(() -> new ResourceNotFoundException("Recompensa não encontrada"));
 
         // Validar que recompensa é da família da criança
-        if (!reward.getFamily().getId().equals(child.getFamily().getId())) {
+        if (!reward.getFamily().getId().equals(principal.getFamilyId())) {
             throw new UnauthorizedException("Esta recompensa não está disponível para você");
         }
 
@@ -56,34 +59,23 @@ public class RedemptionService {
             throw new IllegalStateException("Esta recompensa não está mais disponível");
         }
 
-        // Validar saldo
-        Wallet wallet = walletRepository.findByChildId(child.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
-
-        if (wallet.getBalance() < reward.getCoinCost()) {
-            throw new IllegalArgumentException("Saldo insuficiente. Você precisa de " +
-                    reward.getCoinCost() + " moedas, mas tem apenas " + wallet.getBalance());
-        }
-
-        // DEBITAR MOEDAS IMEDIATAMENTE
-        Integer coinCost = reward.getCoinCost();
-        walletService.debit(child.getId(), coinCost,
-                "Resgate solicitado: " + reward.getName(),
-                ReferenceType.REWARD, null); // referenceId será atualizado depois
-
         // Criar Redemption PENDING
+        Integer coinCost = reward.getCoinCost();
         Redemption redemption = new Redemption();
         redemption.setReward(reward);
         redemption.setChild(child);
         redemption.setStatus(RedemptionStatus.PENDING);
-        redemption.setCoinAmount(coinCost); // Guardar valor debitado
+        redemption.setCoinAmount(coinCost); // Guardar valor reservado
         redemption = redemptionRepository.save(redemption);
 
+        // RESERVAR MOEDAS (valida o saldo disponível no próprio UPDATE; sem saldo, nada é gravado)
+        redemption.setHoldId(walletService.reserve(child.getId(), coinCost,
+                ReferenceType.REWARD, redemption.getId()));
+
         // Notificar pais da família
-        List<User> parents = userRepository.findByFamilyIdAndRole(
-                child.getFamily().getId(), UserRole.PARENT);
+        List<CachedUser> parents = userCache.getFamilyMembers(principal.getFamilyId(), UserRole.PARENT);
 
-        for (User parent : parents) {
+        for (CachedUser parent : parents) {
             notificationService.create(parent.getId(),
                     NotificationType.REDEMPTION_REQUESTED,
                     "Resgate solicitado",
@@ -106,19 +98,19 @@ public class RedemptionService {
      * - CHILD: apenas seus próprios resgates
      */
     @Transactional(readOnly = true)
-    public List<RedemptionResponse> getRedemptions(User user, RedemptionStatus status) {
+    public List<RedemptionResponse> getRedemptions(AuthenticatedUser user, RedemptionStatus status) {
         List<Redemption> redemptions;
 
-        if (user.getRole() == UserRole.PARENT) {
+        if (user.isParent()) {
             // Pai vê todos da família
             if (status != null) {
                 redemptions = redemptionRepository.findByStatus(status).stream()
-                        .filter(r -> r.getReward().getFamily().getId().equals(user.getFamily().getId()))
+                        .filter(r -> r.getReward().getFamily().getId().equals(user.getFamilyId()))
                         .collect(Collectors.toList());
             } else {
                 // Buscar todos e filtrar por família
                 redemptions = redemptionRepository.findAll().stream()
-                        .filter(r -> r.getReward().getFamily().getId().equals(user.getFamily().getId()))
+                        .filter(r -> r.getReward().getFamily().getId().equals(user.getFamilyId()))
                         .collect(Collectors.toList());
             }
         } else {
@@ -148,16 +140,17 @@ public class RedemptionService {
 
     /**
      * Pai aprova resgate
-     * Moedas NÃO são debitadas (já foram debitadas no momento do pedido)
+     * A reserva é liquidada: um único DEBIT no ledger
+     * Resgates antigos (sem reserva) já foram debitados no momento do pedido
      */
     @Transactional
-    public RedemptionResponse approveRedemption(UUID redemptionId, User parent) {
+    public RedemptionResponse approveRedemption(UUID redemptionId, AuthenticatedUser parent) {
         Redemption redemption = redemptionRepository.findById(redemptionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Resgate não encontrado"));
 
         // Validar acesso
-        if (parent.getRole() != UserRole.PARENT ||
-            !redemption.getReward().getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!parent.isParent() ||
+            !redemption.getReward().getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não tem permissão para aprovar este resgate");
         }
 
@@ -168,10 +161,16 @@ public class RedemptionService {
 
         UUID childId = redemption.getChild().getId();
 
+        // DEBITAR MOEDAS RESERVADAS
+        if (redemption.getHoldId() != null) {
+            walletService.settleHold(redemption.getHoldId(),
+                    "Resgate aprovado: " + redemption.getReward().getName());
+        }
+
         // Atualizar redemption
         redemption.setStatus(RedemptionStatus.APPROVED);
         redemption.setReviewedAt(LocalDateTime.now());
-        redemption.setReviewedBy(parent);
+        redemption.setReviewedBy(userRepository.getReferenceById(parent.getId()));
         redemption = redemptionRepository.save(redemption);
 
         // Notificar criança
@@ -191,16 +190,17 @@ public class RedemptionService {
 
     /**
      * Pai rejeita resgate
-     * Moedas são DEVOLVIDAS para a criança
+     * A reserva é liberada (nada é escrito no ledger)
+     * Resgates antigos (sem reserva) recebem o estorno como antes
      */
     @Transactional
-    public RedemptionResponse rejectRedemption(UUID redemptionId, String rejectionReason, User parent) {
+    public RedemptionResponse rejectRedemption(UUID redemptionId, String rejectionReason, AuthenticatedUser parent) {
         Redemption redemption = redemptionRepository.findById(redemptionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Resgate não encontrado"));
 
         // Validar acesso
-        if (parent.getRole() != UserRole.PARENT ||
-            !redemption.getReward().getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!parent.isParent() ||
+            !redemption.getReward().getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não tem permissão para rejeitar este resgate");
         }
 
@@ -212,14 +212,18 @@ public class RedemptionService {
         UUID childId = redemption.getChild().getId();
 
         // DEVOLVER MOEDAS para a criança
-        walletService.credit(childId, redemption.getCoinAmount(),
-                "Resgate rejeitado: " + redemption.getReward().getName() + " - Moedas devolvidas",
-                ReferenceType.REWARD, redemptionId);
+        if (redemption.getHoldId() != null) {
+            walletService.releaseHold(redemption.getHoldId());
+        } else {
+            walletService.credit(childId, redemption.getCoinAmount(),
+                    "Resgate rejeitado: " + redemption.getReward().getName() + " - Moedas devolvidas",
+                    ReferenceType.REWARD, redemptionId);
+        }
 
         // Atualizar redemption
         redemption.setStatus(RedemptionStatus.REJECTED);
         redemption.setReviewedAt(LocalDateTime.now());
-        redemption.setReviewedBy(parent);
+        redemption.setReviewedBy(userRepository.getReferenceById(parent.getId()));
         redemption.setRejectionReason(rejectionReason);
         redemption = redemptionRepository.save(redemption);
 
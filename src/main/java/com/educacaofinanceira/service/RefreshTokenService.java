@@ -0,0 +1,128 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.exception.UnauthorizedException;
+import com.educacaofinanceira.model.RefreshToken;
+import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.repository.RefreshTokenRepository;
+import com.educacaofinanceira.util.ExpiringCache;
+import com.educacaofinanceira.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Gerencia refresh tokens
+ *
+ * - Apenas o SHA-256 do token é armazenado (coluna de tamanho fixo com índice único)
+ * - Revogação por usuário em um único DELETE
+ * - Tokens rejeitados (inexistentes, revogados ou expirados) ficam em um cache
+ *   negativo e são recusados sem consultar o banco em novas tentativas
+ * - Tokens expirados são removidos periodicamente em lotes
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshTokenExpiration;
+    private final int purgeBatchSize;
+    private final ExpiringCache<String, Boolean> rejectedTokens;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh-token-expiration}") Long refreshTokenExpiration,
+                               @Value("${jwt.refresh-token-purge-batch-size:1000}") Integer purgeBatchSize,
+                               @Value("${jwt.rejected-token-cache-size:10000}") Integer rejectedTokenCacheSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+        this.purgeBatchSize = purgeBatchSize;
+        this.rejectedTokens = new ExpiringCache<>(rejectedTokenCacheSize);
+    }
+
+    /**
+     * Cria um novo refresh token para o usuário
+     * Retorna o valor original (enviado ao cliente uma única vez)
+     */
+    @Transactional
+    public String create(User user) {
+        String rawToken = UUID.randomUUID().toString();
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(HashUtils.sha256Hex(rawToken));
+        refreshToken.setUser(user);
+        refreshToken.setExpiresAt(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000));
+        refreshToken.setRevoked(false);
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    /**
+     * Valida o refresh token e retorna a entidade (com User e Family carregados)
+     */
+    @Transactional(readOnly = true)
+    public RefreshToken verify(String rawToken) {
+        String tokenHash = HashUtils.sha256Hex(rawToken);
+
+        // Token já rejeitado antes: recusa sem consultar o banco
+        if (rejectedTokens.get(tokenHash) != null) {
+            throw new UnauthorizedException("Refresh token inválido");
+        }
+
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHashWithUser(tokenHash)
+                .orElseThrow(() -> reject(tokenHash, "Refresh token inválido"));
+
+        // Valida se não está revogado
+        if (refreshToken.getRevoked()) {
+            throw reject(tokenHash, "Refresh token revogado");
+        }
+
+        // Valida se não expirou
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw reject(tokenHash, "Refresh token expirado");
+        }
+
+        return refreshToken;
+    }
+
+    /**
+     * Revoga (remove) todos os refresh tokens do usuário em um único DELETE
+     */
+    @Transactional
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Remove tokens expirados em lotes (cada lote em sua própria transação)
+     * Executado a cada hora
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        rejectedTokens.purgeExpired();
+
+        if (total > 0) {
+            log.info("Removidos {} refresh tokens expirados", total);
+        }
+    }
+
+    // Registra o token no cache negativo até o fim da validade máxima de um refresh token
+    private UnauthorizedException reject(String tokenHash, String message) {
+        rejectedTokens.put(tokenHash, Boolean.TRUE, Duration.ofMillis(refreshTokenExpiration));
+        return new UnauthorizedException(message);
+    }
+}
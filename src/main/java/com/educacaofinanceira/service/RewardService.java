@@ -4,9 +4,10 @@ import com.educacaofinanceira.dto.request.CreateRewardRequest;
 import com.educacaofinanceira.dto.response.RewardResponse;
 import com.educacaofinanceira.exception.UnauthorizedException;
 import com.educacaofinanceira.model.Reward;
-import com.educacaofinanceira.model.User;
-import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.repository.FamilyRepository;
 import com.educacaofinanceira.repository.RewardRepository;
+import com.educacaofinanceira.repository.UserRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,21 +21,23 @@ import java.util.stream.Collectors;
 public class RewardService {
 
     private final RewardRepository rewardRepository;
+    private final FamilyRepository familyRepository;
+    private final UserRepository userRepository;
 
     /**
      * Cria uma nova recompensa (apenas PARENT)
      */
     @Transactional
-    public RewardResponse createReward(CreateRewardRequest request, User parent) {
+    public RewardResponse createReward(CreateRewardRequest request, AuthenticatedUser parent) {
         // Validar que é um PARENT
-        if (parent.getRole() != UserRole.PARENT) {
+        if (!parent.isParent()) {
             throw new UnauthorizedException("Apenas pais podem criar recompensas");
         }
 
-        // Criar Reward
+        // Criar Reward (referências sem SELECT, apenas as FKs)
         Reward reward = new Reward();
-        reward.setFamily(parent.getFamily());
-        reward.setCreatedBy(parent);
+        reward.setFamily(familyRepository.getReferenceById(parent.getFamilyId()));
+        reward.setCreatedBy(userRepository.getReferenceById(parent.getId()));
         reward.setName(request.getName());
         reward.setDescription(request.getDescription());
         reward.setCoinCost(request.getCoinCost());
@@ -55,16 +58,16 @@ public class RewardService {
      * - CHILD: apenas recompensas ativas
      */
     @Transactional(readOnly = true)
-    public List<RewardResponse> getRewards(User user, Boolean activeOnly) {
+    public List<RewardResponse> getRewards(AuthenticatedUser user, Boolean activeOnly) {
         List<Reward> rewards;
 
-        if (user.getRole() == UserRole.PARENT && !activeOnly) {
+        if (user.isParent() && !activeOnly) {
             // Pai pode ver todas (usa JOIN FETCH para carregar relacionamentos)
-            rewards = rewardRepository.findByFamilyIdWithRelations(user.getFamily().getId());
+            rewards = rewardRepository.findByFamilyIdWithRelations(user.getFamilyId());
         } else {
             // Criança ou pai filtrando, vê apenas ativas (usa JOIN FETCH)
             rewards = rewardRepository.findByFamilyIdAndIsActiveWithRelations(
-                    user.getFamily().getId(), true);
+                    user.getFamilyId(), true);
         }
 
         return rewards.stream()
@@ -76,13 +79,13 @@ public class RewardService {
      * Ativa/desativa uma recompensa (apenas PARENT)
      */
     @Transactional
-    public RewardResponse toggleRewardStatus(UUID rewardId, User parent) {
+    public RewardResponse toggleRewardStatus(UUID rewardId, AuthenticatedUser parent) {
         Reward reward = rewardRepository.findById(rewardId)
                 .orElseThrow(() -> new IllegalArgumentException("Recompensa não encontrada"));
 
         // Validar acesso
-        if (parent.getRole() != UserRole.PARENT ||
-            !reward.getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!parent.isParent() ||
+            !reward.getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não tem permissão para modificar esta recompensa");
         }
 
@@ -101,13 +104,13 @@ public class RewardService {
      * Deleta uma recompensa (apenas PARENT)
      */
     @Transactional
-    public void deleteReward(UUID rewardId, User parent) {
+    public void deleteReward(UUID rewardId, AuthenticatedUser parent) {
         Reward reward = rewardRepository.findById(rewardId)
                 .orElseThrow(() -> new IllegalArgumentException("Recompensa não encontrada"));
 
         // Validar acesso
-        if (parent.getRole() != UserRole.PARENT ||
-            !reward.getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!parent.isParent() ||
+            !reward.getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não tem permissão para deletar esta recompensa");
         }
 
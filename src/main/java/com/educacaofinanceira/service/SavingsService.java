@@ -4,17 +4,17 @@ import com.educacaofinanceira.dto.response.SavingsResponse;
 import com.educacaofinanceira.exception.ResourceNotFoundException;
 import com.educacaofinanceira.exception.UnauthorizedException;
 import com.educacaofinanceira.model.Savings;
-import com.educacaofinanceira.model.User;
 import com.educacaofinanceira.model.enums.NotificationType;
 import com.educacaofinanceira.model.enums.ReferenceType;
-import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.repository.FamilyRepository;
 import com.educacaofinanceira.repository.SavingsRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -26,6 +26,7 @@ import java.util.UUID;
 public class SavingsService {
 
     private final SavingsRepository savingsRepository;
+    private final FamilyRepository familyRepository;
     private final WalletService walletService;
     private final NotificationService notificationService;
 
@@ -33,7 +34,7 @@ public class SavingsService {
      * Deposita moedas da carteira para a poupança
      */
     @Transactional
-    public SavingsResponse deposit(UUID childId, Integer amount, User requestingUser) {
+    public SavingsResponse deposit(UUID childId, Integer amount, AuthenticatedUser requestingUser) {
         // Validar acesso
         validateAccess(childId, requestingUser);
 
@@ -68,7 +69,7 @@ public class SavingsService {
      * - 30+ dias: +10%
      */
     @Transactional
-    public SavingsResponse withdraw(UUID childId, Integer amount, User requestingUser) {
+    public SavingsResponse withdraw(UUID childId, Integer amount, AuthenticatedUser requestingUser) {
         // Validar acesso
         validateAccess(childId, requestingUser);
 
@@ -113,7 +114,7 @@ public class SavingsService {
      * Busca dados da poupança
      */
     @Transactional(readOnly = true)
-    public SavingsResponse getSavings(UUID childId, User requestingUser) {
+    public SavingsResponse getSavings(UUID childId, AuthenticatedUser requestingUser) {
         validateAccess(childId, requestingUser);
 
         Savings savings = savingsRepository.findByChildId(childId)
@@ -123,15 +124,18 @@ public class SavingsService {
     }
 
     /**
-     * Aplica rendimento semanal de 2%
-     * Executado automaticamente todo domingo à meia-noite
+     * Aplica rendimento semanal de 2% nas poupanças de uma família
+     * Chamado pelo WeeklyInterestScheduler no domingo local da família (uma transação por família)
+     * Retorna a quantidade de poupanças com rendimento (0 se o domingo já foi processado)
      */
-    @Scheduled(cron = "0 0 0 * * SUN")
     @Transactional
-    public void applyWeeklyInterest() {
-        log.info("Aplicando rendimento semanal nas poupanças...");
+    public int applyWeeklyInterest(UUID familyId, LocalDate sunday) {
+        // Marca o domingo antes de aplicar: outra execução concorrente não aplica de novo
+        if (familyRepository.claimInterestRun(familyId, sunday) == 0) {
+            return 0;
+        }
 
-        List<Savings> savingsWithBalance = savingsRepository.findAllByBalanceGreaterThan(0);
+        List<Savings> savingsWithBalance = savingsRepository.findAllByChildFamilyIdAndBalanceGreaterThan(familyId, 0);
 
         for (Savings savings : savingsWithBalance) {
             // Calcular 2% de rendimento
@@ -153,7 +157,8 @@ public class SavingsService {
                     savings.getChild().getId(), interest);
         }
 
-        log.info("Rendimento semanal aplicado em {} poupanças", savingsWithBalance.size());
+        log.info("Rendimento semanal aplicado em {} poupanças da família {}", savingsWithBalance.size(), familyId);
+        return savingsWithBalance.size();
     }
 
     /**
@@ -181,13 +186,13 @@ public class SavingsService {
     /**
      * Valida acesso (PARENT da família ou própria CHILD)
      */
-    private void validateAccess(UUID childId, User requestingUser) {
-        if (requestingUser.getRole() == UserRole.PARENT) {
+    private void validateAccess(UUID childId, AuthenticatedUser requestingUser) {
+        if (requestingUser.isParent()) {
             // Pai deve ser da mesma família
             Savings savings = savingsRepository.findByChildId(childId)
                     .orElseThrow(() -> new ResourceNotFoundException("Poupança não encontrada"));
 
-            if (!savings.getChild().getFamily().getId().equals(requestingUser.getFamily().getId())) {
+            if (!savings.getChild().getFamily().getId().equals(requestingUser.getFamilyId())) {
                 throw new UnauthorizedException("Você não tem acesso a esta poupança");
             }
         } else {
@@ -0,0 +1,65 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.repository.TaskAssignmentArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Arquiva assignments finalizadas (APPROVED/REJECTED) antigas
+ *
+ * - Move de task_assignments para task_assignments_archive em lotes (uma transação curta por lote)
+ * - Mantém a tabela quente pequena: listagens e aprovações só leem as tarefas recentes
+ * - Badges e tarefas recorrentes consultam as duas tabelas
+ */
+@Slf4j
+@Service
+public class TaskArchiveService {
+
+    private final TaskAssignmentArchiveRepository archiveRepository;
+    private final Counter archivedCounter;
+    private final boolean enabled;
+    private final int minAgeDays;
+    private final int batchSize;
+
+    public TaskArchiveService(TaskAssignmentArchiveRepository archiveRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${task-archive.enabled:true}") Boolean enabled,
+                              @Value("${task-archive.min-age-days:90}") Integer minAgeDays,
+                              @Value("${task-archive.batch-size:1000}") Integer batchSize) {
+        this.archiveRepository = archiveRepository;
+        this.archivedCounter = Counter.builder("kidscoin.tasks.archived").register(meterRegistry);
+        this.enabled = enabled;
+        this.minAgeDays = Math.max(1, minAgeDays);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Executado todo dia às 04:00 (task-archive.cron)
+     */
+    @Scheduled(cron = "${task-archive.cron:0 0 4 * * *}")
+    public void archiveOldAssignments() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        int total = 0;
+        int moved;
+
+        do {
+            moved = archiveRepository.archiveBatch(cutoff, batchSize);
+            total += moved;
+            archivedCounter.increment(moved);
+        } while (moved == batchSize);
+
+        if (total > 0) {
+            log.info("Arquivadas {} assignments finalizadas antes de {}", total, cutoff.toLocalDate());
+        }
+    }
+}
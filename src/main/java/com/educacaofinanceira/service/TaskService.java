@@ -1,6 +1,8 @@
 package com.educacaofinanceira.service;
 
 import com.educacaofinanceira.dto.request.CreateTaskRequest;
+import com.educacaofinanceira.dto.response.CursorPage;
+import com.educacaofinanceira.dto.response.TaskApprovalResult;
 import com.educacaofinanceira.dto.response.TaskAssignmentResponse;
 import com.educacaofinanceira.dto.response.TaskResponse;
 import com.educacaofinanceira.exception.ResourceNotFoundException;
@@ -12,16 +14,26 @@ import com.educacaofinanceira.model.enums.AssignmentStatus;
 import com.educacaofinanceira.model.enums.NotificationType;
 import com.educacaofinanceira.model.enums.ReferenceType;
 import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.repository.FamilyRepository;
 import com.educacaofinanceira.repository.TaskAssignmentRepository;
+import com.educacaofinanceira.repository.TaskAssignmentRepositoryCustom.TaskAssignmentFilter;
 import com.educacaofinanceira.repository.TaskRepository;
 import com.educacaofinanceira.repository.UserRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import com.educacaofinanceira.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,24 +44,94 @@ public class TaskService {
     private final TaskRepository taskRepository;
     private final TaskAssignmentRepository taskAssignmentRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final FamilyRepository familyRepository;
     private final WalletService walletService;
     private final GamificationService gamificationService;
     private final NotificationService notificationService;
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     /**
      * Cria uma nova tarefa e atribui a crianças
      */
     @Transactional
-    public TaskResponse createTask(CreateTaskRequest request, User parent) {
+    public TaskResponse createTask(CreateTaskRequest request, AuthenticatedUser parent) {
+        return createTasks(List.of(request), parent).get(0);
+    }
+
+    /**
+     * Cria várias tarefas (cada uma com suas crianças) em uma única transação
+     * - Crianças de todas as tarefas validadas em uma única consulta (IN + família)
+     * - Tasks, assignments e notificações inseridos em lote JDBC (hibernate.jdbc.batch_size)
+     * Se alguma criança for inválida, nada é criado
+     */
+    @Transactional
+    public List<TaskResponse> createTasks(List<CreateTaskRequest> requests, AuthenticatedUser parent) {
         // Validar que é um PARENT
-        if (parent.getRole() != UserRole.PARENT) {
+        if (!parent.isParent()) {
             throw new UnauthorizedException("Apenas pais podem criar tarefas");
         }
 
-        // Criar Task
+        validateChildren(requests, parent.getFamilyId());
+
+        List<Task> tasks = taskRepository.saveAll(requests.stream()
+                .map(request -> newTask(request, parent))
+                .collect(Collectors.toList()));
+
+        // Criar TaskAssignments para cada criança (IDs gerados no persist, antes do flush)
+        List<TaskAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Task task = tasks.get(i);
+            for (UUID childId : new LinkedHashSet<>(requests.get(i).getChildrenIds())) {
+                TaskAssignment assignment = new TaskAssignment();
+                assignment.setTask(task);
+                assignment.setAssignedToChild(userRepository.getReferenceById(childId));
+                assignments.add(assignment);
+            }
+        }
+        taskAssignmentRepository.saveAll(assignments);
+
+        // Notificar crianças
+        notificationService.createAll(assignments.stream()
+                .map(assignment -> new NotificationService.NewNotification(
+                        assignment.getAssignedToChild().getId(),
+                        NotificationType.TASK_ASSIGNED,
+                        "Nova tarefa disponível",
+                        "Você recebeu uma nova tarefa: " + assignment.getTask().getTitle(),
+                        ReferenceType.TASK, assignment.getId()))
+                .collect(Collectors.toList()));
+
+        return tasks.stream()
+                .map(TaskResponse::fromTask)
+                .collect(Collectors.toList());
+    }
+
+    // Todas as crianças das requisições devem ser da família do pai
+    private void validateChildren(List<CreateTaskRequest> requests, UUID familyId) {
+        Set<UUID> childIds = requests.stream()
+                .flatMap(request -> request.getChildrenIds().stream())
+                .collect(Collectors.toSet());
+
+        Set<UUID> valid = new HashSet<>(userRepository.findChildIdsInFamily(childIds, familyId));
+        if (valid.size() == childIds.size()) {
+            return;
+        }
+
+        // Caminho de erro: distinguir criança inexistente de criança de outra família
+        childIds.removeAll(valid);
+        if (userRepository.findAllById(childIds).size() < childIds.size()) {
+            throw new ResourceNotFoundException("Criança não encontrada");
+        }
+        throw new UnauthorizedException("Criança não pertence à sua família");
+    }
+
+    private Task newTask(CreateTaskRequest request, AuthenticatedUser parent) {
+        // Criar Task (referências sem SELECT, apenas as FKs)
         Task task = new Task();
-        task.setFamily(parent.getFamily());
-        task.setCreatedBy(parent);
+        task.setFamily(familyRepository.getReferenceById(parent.getFamilyId()));
+        task.setCreatedBy(userRepository.getReferenceById(parent.getId()));
         task.setTitle(request.getTitle());
         task.setDescription(request.getDescription());
         task.setCoinValue(request.getCoinValue());
@@ -61,68 +143,73 @@ public class TaskService {
         task.setRecurrenceType(request.getRecurrenceType());
         task.setRecurrenceDays(request.getRecurrenceDays());
         task.setRecurrenceEndDate(request.getRecurrenceEndDate());
-
-        task = taskRepository.save(task);
-
-        // Criar TaskAssignments para cada criança
-        for (UUID childId : request.getChildrenIds()) {
-            User child = userRepository.findById(childId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Criança não encontrada"));
-
-            // Validar que a criança é da mesma família
-            if (!child.getFamily().getId().equals(parent.getFamily().getId())) {
-                throw new UnauthorizedException("Criança não pertence à sua família");
-            }
-
-            TaskAssignment assignment = new TaskAssignment();
-            assignment.setTask(task);
-            assignment.setAssignedToChild(child);
-            taskAssignmentRepository.save(assignment);
-
-            // Notificar criança
-            notificationService.create(childId, NotificationType.TASK_ASSIGNED,
-                    "Nova tarefa disponível",
-                    "Você recebeu uma nova tarefa: " + task.getTitle(),
-                    ReferenceType.TASK, assignment.getId());
+        if (task.getIsRecurring()) {
+            task.getRecurringTargetIds().addAll(request.getChildrenIds());
         }
-
-        return TaskResponse.fromTask(task);
+        return task;
     }
 
     /**
-     * Lista tarefas
-     * - PARENT: todas as assignments da família
+     * Lista tarefas com filtros opcionais e paginação por keyset
+     * - PARENT: assignments da família (filtro childId opcional)
      * - CHILD: apenas suas próprias assignments
+     * - Sem limit e sem cursor: lista completa, sem próxima página (contrato anterior à paginação)
      */
     @Transactional(readOnly = true)
-    public List<TaskAssignmentResponse> getTasks(User user) {
-        List<TaskAssignment> assignments;
-
-        if (user.getRole() == UserRole.PARENT) {
-            // Buscar todas as tasks da família
-            List<Task> familyTasks = taskRepository.findByFamilyId(user.getFamily().getId());
-
-            // Buscar todos os assignments dessas tasks
-            assignments = new ArrayList<>();
-            for (Task task : familyTasks) {
-                List<TaskAssignment> taskAssignments = taskAssignmentRepository.findByTaskId(task.getId());
-                assignments.addAll(taskAssignments);
-            }
+    public CursorPage<TaskAssignmentResponse> getTasks(AuthenticatedUser user, TaskAssignmentFilter filter,
+                                                       Integer limit, String cursor) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Parâmetros de paginação inválidos");
+        }
+        validateRange(filter.getCreatedFrom(), filter.getCreatedTo());
+        validateRange(filter.getApprovedFrom(), filter.getApprovedTo());
+
+        // Escopo sempre definido pelo usuário autenticado, nunca pelo cliente
+        TaskAssignmentFilter.TaskAssignmentFilterBuilder scoped = filter.toBuilder();
+        if (user.isParent()) {
+            scoped.familyId(user.getFamilyId());
         } else {
-            // Criança vê apenas suas próprias assignments
-            assignments = taskAssignmentRepository.findByAssignedToChildId(user.getId());
+            if (filter.getChildId() != null && !filter.getChildId().equals(user.getId())) {
+                throw new UnauthorizedException("Você não tem acesso às tarefas de outra criança");
+            }
+            scoped.childId(user.getId());
+        }
+
+        if (limit == null && cursor == null) {
+            List<TaskAssignmentResponse> items = taskAssignmentRepository.findAllMatching(scoped.build()).stream()
+                    .map(TaskAssignmentResponse::fromAssignment)
+                    .collect(Collectors.toList());
+            return new CursorPage<>(items, null);
+        }
+
+        int pageSize = Math.min(limit != null ? limit : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        if (cursor != null) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            scoped.afterCreatedAt(position.createdAt()).afterId(position.id());
+        }
+
+        // Busca um item a mais para saber se existe próxima página
+        List<TaskAssignment> assignments = taskAssignmentRepository.findPage(scoped.build(), pageSize + 1);
+
+        String nextCursor = null;
+        if (assignments.size() > pageSize) {
+            assignments = assignments.subList(0, pageSize);
+            TaskAssignment last = assignments.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
         }
 
-        return assignments.stream()
+        List<TaskAssignmentResponse> items = assignments.stream()
                 .map(TaskAssignmentResponse::fromAssignment)
                 .collect(Collectors.toList());
+
+        return new CursorPage<>(items, nextCursor);
     }
 
     /**
      * Criança marca tarefa como concluída
      */
     @Transactional
-    public TaskAssignmentResponse completeTask(UUID assignmentId, User child) {
+    public TaskAssignmentResponse completeTask(UUID assignmentId, AuthenticatedUser child) {
         TaskAssignment assignment = taskAssignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tarefa não encontrada"));
 
@@ -142,14 +229,14 @@ public class TaskService {
         assignment = taskAssignmentRepository.save(assignment);
 
         // Notificar pais da família
-        List<User> parents = userRepository.findByFamilyIdAndRole(
-                child.getFamily().getId(), UserRole.PARENT);
+        List<CachedUser> parents = userCache.getFamilyMembers(child.getFamilyId(), UserRole.PARENT);
 
-        for (User parent : parents) {
+        String childName = assignment.getAssignedToChild().getFullName();
+        for (CachedUser parent : parents) {
             notificationService.create(parent.getId(),
                     NotificationType.TASK_COMPLETED,
                     "Tarefa completada",
-                    child.getFullName() + " completou: " + assignment.getTask().getTitle(),
+                    childName + " completou: " + assignment.getTask().getTitle(),
                     ReferenceType.TASK, assignmentId);
         }
 
@@ -161,13 +248,13 @@ public class TaskService {
      * SEQUÊNCIA CRÍTICA: atualiza status → credita moedas → adiciona XP → verifica badges
      */
     @Transactional
-    public TaskAssignmentResponse approveTask(UUID assignmentId, User parent) {
+    public TaskAssignmentResponse approveTask(UUID assignmentId, AuthenticatedUser parent) {
         TaskAssignment assignment = taskAssignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tarefa não encontrada"));
 
         // Validar que é pai da família
-        if (parent.getRole() != UserRole.PARENT ||
-            !assignment.getTask().getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!parent.isParent() ||
+            !assignment.getTask().getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não tem permissão para aprovar esta tarefa");
         }
 
@@ -179,7 +266,7 @@ public class TaskService {
         // Marcar como aprovada
         assignment.setStatus(AssignmentStatus.APPROVED);
         assignment.setApprovedAt(LocalDateTime.now());
-        assignment.setApprovedBy(parent);
+        assignment.setApprovedBy(userRepository.getReferenceById(parent.getId()));
         assignment = taskAssignmentRepository.save(assignment);
 
         UUID childId = assignment.getAssignedToChild().getId();
@@ -205,17 +292,106 @@ public class TaskService {
         return TaskAssignmentResponse.fromAssignment(assignment);
     }
 
+    /**
+     * Pai aprova várias tarefas de uma vez
+     * - Assignments validadas e bloqueadas em uma única consulta
+     * - Moedas: creditBatch (um lock e um UPDATE por carteira; uma Transaction por tarefa, em lote)
+     * - XP somado por criança: um addXP (e uma verificação de badges) por criança, não por tarefa
+     * - Uma notificação por criança
+     * Itens inválidos não impedem os demais; retorna o resultado de cada item na ordem recebida
+     */
+    @Transactional
+    public List<TaskApprovalResult> approveTasks(List<UUID> assignmentIds, AuthenticatedUser parent) {
+        if (!parent.isParent()) {
+            throw new UnauthorizedException("Apenas pais podem aprovar tarefas");
+        }
+
+        Set<UUID> ids = new LinkedHashSet<>(assignmentIds);
+        Map<UUID, TaskAssignment> assignments = new HashMap<>();
+        for (TaskAssignment assignment : taskAssignmentRepository.findByIdsWithLock(ids)) {
+            assignments.put(assignment.getId(), assignment);
+        }
+
+        // Tasks (com criador) em uma consulta: ficam no contexto para assignment.getTask()
+        taskRepository.findAllByIdWithCreator(assignments.values().stream()
+                .map(assignment -> assignment.getTask().getId())
+                .collect(Collectors.toSet()));
+
+        LocalDateTime now = LocalDateTime.now();
+        User approver = userRepository.getReferenceById(parent.getId());
+        Map<UUID, List<TaskAssignment>> approvedByChild = new LinkedHashMap<>();
+        List<TaskApprovalResult> results = new ArrayList<>(ids.size());
+
+        for (UUID id : ids) {
+            TaskAssignment assignment = assignments.get(id);
+
+            if (assignment == null) {
+                results.add(new TaskApprovalResult(id, TaskApprovalResult.Outcome.NOT_FOUND,
+                        "Tarefa não encontrada", null));
+            } else if (!assignment.getTask().getFamily().getId().equals(parent.getFamilyId())) {
+                results.add(new TaskApprovalResult(id, TaskApprovalResult.Outcome.FORBIDDEN,
+                        "Você não tem permissão para aprovar esta tarefa", null));
+            } else if (assignment.getStatus() != AssignmentStatus.COMPLETED) {
+                results.add(new TaskApprovalResult(id, TaskApprovalResult.Outcome.NOT_COMPLETED,
+                        "Esta tarefa não está aguardando aprovação", null));
+            } else {
+                // Marcar como aprovada (UPDATEs em lote no flush)
+                assignment.setStatus(AssignmentStatus.APPROVED);
+                assignment.setApprovedAt(now);
+                assignment.setApprovedBy(approver);
+
+                approvedByChild.computeIfAbsent(assignment.getAssignedToChild().getId(), k -> new ArrayList<>())
+                        .add(assignment);
+                results.add(new TaskApprovalResult(id, TaskApprovalResult.Outcome.APPROVED, null,
+                        TaskAssignmentResponse.fromAssignment(assignment)));
+            }
+        }
+
+        if (approvedByChild.isEmpty()) {
+            return results;
+        }
+
+        // **MESMA SEQUÊNCIA DA APROVAÇÃO INDIVIDUAL, agregada por criança:**
+        // 1. Creditar moedas
+        List<WalletService.LedgerEntry> entries = new ArrayList<>();
+        approvedByChild.forEach((childId, approved) -> approved.forEach(assignment ->
+                entries.add(new WalletService.LedgerEntry(childId, assignment.getTask().getCoinValue(),
+                        "Tarefa aprovada: " + assignment.getTask().getTitle(),
+                        ReferenceType.TASK, assignment.getId()))));
+        walletService.creditBatch(entries);
+
+        List<NotificationService.NewNotification> notifications = new ArrayList<>();
+        approvedByChild.forEach((childId, approved) -> {
+            int coins = approved.stream().mapToInt(assignment -> assignment.getTask().getCoinValue()).sum();
+            int xp = approved.stream().mapToInt(assignment -> assignment.getTask().getXpValue()).sum();
+            boolean single = approved.size() == 1;
+            String what = single ? approved.get(0).getTask().getTitle() : approved.size() + " tarefas";
+
+            // 2. Adicionar XP (verifica badges e níveis uma vez por criança)
+            gamificationService.addXP(childId, xp, single ? "Tarefa aprovada: " + what : what + " aprovadas");
+
+            // 3. Notificar criança
+            notifications.add(new NotificationService.NewNotification(childId, NotificationType.TASK_APPROVED,
+                    single ? "Tarefa aprovada!" : "Tarefas aprovadas!",
+                    "Você ganhou " + coins + " moedas e " + xp + " XP por completar: " + what,
+                    ReferenceType.TASK, single ? approved.get(0).getId() : null));
+        });
+        notificationService.createAll(notifications);
+
+        return results;
+    }
+
     /**
      * Pai rejeita tarefa
      */
     @Transactional
-    public TaskAssignmentResponse rejectTask(UUID assignmentId, String rejectionReason, User parent) {
+    public TaskAssignmentResponse rejectTask(UUID assignmentId, String rejectionReason, AuthenticatedUser parent) {
         TaskAssignment assignment = taskAssignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tarefa não encontrada"));
 
         // Validar que é pai da família
-        if (parent.getRole() != UserRole.PARENT ||
-            !assignment.getTask().getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!parent.isParent() ||
+            !assignment.getTask().getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não tem permissão para rejeitar esta tarefa");
         }
 
@@ -228,7 +404,7 @@ public class TaskService {
         assignment.setStatus(AssignmentStatus.REJECTED);
         assignment.setRejectionReason(rejectionReason);
         assignment.setApprovedAt(LocalDateTime.now()); // Data de revisão
-        assignment.setApprovedBy(parent);
+        assignment.setApprovedBy(userRepository.getReferenceById(parent.getId()));
         assignment = taskAssignmentRepository.save(assignment);
 
         UUID childId = assignment.getAssignedToChild().getId();
@@ -248,7 +424,7 @@ public class TaskService {
      * REJECTED → PENDING + limpa campos de aprovação/rejeição
      */
     @Transactional
-    public TaskAssignmentResponse retryTask(UUID assignmentId, User child) {
+    public TaskAssignmentResponse retryTask(UUID assignmentId, AuthenticatedUser child) {
         TaskAssignment assignment = taskAssignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tarefa não encontrada"));
 
@@ -278,13 +454,13 @@ public class TaskService {
      * Só pode excluir se status for PENDING ou REJECTED
      */
     @Transactional
-    public void deleteTaskAssignment(UUID assignmentId, User parent) {
+    public void deleteTaskAssignment(UUID assignmentId, AuthenticatedUser parent) {
         TaskAssignment assignment = taskAssignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tarefa não encontrada"));
 
         // Validar que é pai da família
-        if (parent.getRole() != UserRole.PARENT ||
-            !assignment.getTask().getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!parent.isParent() ||
+            !assignment.getTask().getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não tem permissão para excluir esta tarefa");
         }
 
@@ -310,4 +486,10 @@ public class TaskService {
                 "A tarefa '" + taskTitle + "' foi removida pelo responsável",
                 null, null);
     }
+
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Período inválido: data inicial deve ser anterior à final");
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.dto.response.TransactionResponse;
+import com.educacaofinanceira.repository.TransactionRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do histórico de transações (CSV ou NDJSON) em streaming
+ *
+ * - Linhas lidas por cursor no servidor (fetch size) e escritas uma a uma:
+ *   memória constante, independente do tamanho do histórico
+ * - Roda na thread do StreamingResponseBody: acesso e período são validados antes,
+ *   na thread da requisição (prepare)
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "id,data,tipo,valor,saldo_anterior,saldo_posterior,descricao,referencia_tipo,referencia_id";
+
+    private final TransactionRepository transactionRepository;
+    private final WalletService walletService;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato inválido. Use csv ou ndjson");
+            }
+        }
+    }
+
+    /**
+     * Valida acesso e período na thread da requisição (erros ainda viram 4xx normalmente)
+     * Retorna o ID da carteira a exportar
+     */
+    public UUID prepare(UUID childId, AuthenticatedUser requestingUser, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Data inicial deve ser anterior à data final");
+        }
+
+        return walletService.getAccessibleWalletId(childId, requestingUser);
+    }
+
+    /**
+     * Escreve as transações do período [from, to] (datas inclusivas) no OutputStream
+     * A transação fica aberta enquanto o Stream é consumido (exigido pelo cursor do PostgreSQL)
+     */
+    @Transactional(readOnly = true)
+    public void export(UUID walletId, LocalDate from, LocalDate to, Format format, OutputStream output)
+            throws IOException {
+        LocalDateTime start = from != null ? from.atStartOfDay() : LocalDate.of(1970, 1, 1).atStartOfDay();
+        LocalDateTime end = (to != null ? to : LocalDate.now()).plusDays(1).atStartOfDay();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<TransactionResponse> rows = transactionRepository.streamForExport(walletId, start, end)) {
+            Iterator<TransactionResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TransactionResponse row = iterator.next();
+                writer.write(format == Format.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+
+        writer.flush();
+    }
+
+    private String toCsv(TransactionResponse row) {
+        return String.join(",",
+                String.valueOf(row.getId()),
+                String.valueOf(row.getCreatedAt()),
+                row.getType().name(),
+                String.valueOf(row.getAmount()),
+                String.valueOf(row.getBalanceBefore()),
+                String.valueOf(row.getBalanceAfter()),
+                csvText(row.getDescription()),
+                row.getReferenceType() != null ? row.getReferenceType().name() : "",
+                row.getReferenceId() != null ? row.getReferenceId().toString() : "");
+    }
+
+    // Escapa aspas e neutraliza fórmulas de planilha (=, +, -, @) em textos livres
+    private String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value;
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
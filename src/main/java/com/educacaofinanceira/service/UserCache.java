@@ -0,0 +1,130 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.exception.ResourceNotFoundException;
+import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.repository.UserRepository;
+import com.educacaofinanceira.util.ExpiringCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cache de usuários e membros de família
+ *
+ * - Guarda snapshots imutáveis (nunca entidades JPA), então nada vaza entre requisições
+ * - Limitado em tamanho e com TTL; escritas (criar/deletar criança, avatar) invalidam explicitamente
+ * - A invalidação é repetida após o commit, para que uma leitura concorrente
+ *   não recoloque no cache o estado anterior à transação
+ */
+@Service
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final ExpiringCache<UUID, CachedUser> users;
+    private final ExpiringCache<UUID, List<CachedUser>> families;
+    private final Duration ttl;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${cache.users.max-size:10000}") Integer maxSize,
+                     @Value("${cache.users.ttl-seconds:300}") Long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.users = new ExpiringCache<>(maxSize);
+        this.families = new ExpiringCache<>(maxSize);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+
+        registerMetrics(meterRegistry, "users", users);
+        registerMetrics(meterRegistry, "families", families);
+    }
+
+    /**
+     * Retorna o usuário (com o ID da família) pelo ID
+     */
+    public CachedUser getUser(UUID userId) {
+        CachedUser cached = users.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CachedUser snapshot = userRepository.findByIdWithFamily(userId)
+                .map(CachedUser::from)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+
+        users.put(userId, snapshot, ttl);
+        return snapshot;
+    }
+
+    /**
+     * Retorna todos os membros (pais e crianças) da família
+     */
+    public List<CachedUser> getFamilyMembers(UUID familyId) {
+        List<CachedUser> cached = families.get(familyId);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<CachedUser> members = userRepository.findByFamilyId(familyId).stream()
+                .map(CachedUser::from)
+                .toList();
+
+        families.put(familyId, members, ttl);
+        return members;
+    }
+
+    public List<CachedUser> getFamilyMembers(UUID familyId, UserRole role) {
+        return getFamilyMembers(familyId).stream()
+                .filter(member -> member.getRole() == role)
+                .toList();
+    }
+
+    public void invalidateUser(UUID userId) {
+        invalidate(() -> users.invalidate(userId));
+    }
+
+    public void invalidateFamily(UUID familyId) {
+        invalidate(() -> families.invalidate(familyId));
+    }
+
+    @Scheduled(fixedDelay = 300000)
+    public void purgeExpired() {
+        users.purgeExpired();
+        families.purgeExpired();
+    }
+
+    // Invalida agora e, se houver transação ativa, novamente após o commit
+    private void invalidate(Runnable invalidation) {
+        invalidation.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry, String name, ExpiringCache<?, ?> cache) {
+        FunctionCounter.builder("kidscoin.cache.requests", cache, ExpiringCache::hitCount)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("kidscoin.cache.requests", cache, ExpiringCache::missCount)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("kidscoin.cache.size", cache, ExpiringCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -7,9 +7,11 @@ import com.educacaofinanceira.exception.UnauthorizedException;
 import com.educacaofinanceira.model.*;
 import com.educacaofinanceira.model.enums.UserRole;
 import com.educacaofinanceira.repository.*;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import com.educacaofinanceira.security.JwtTokenProvider;
+import com.educacaofinanceira.security.PasswordHashingService;
+import com.educacaofinanceira.util.SecurityHelper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,7 +24,10 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final FamilyRepository familyRepository;
+    private final SecurityHelper securityHelper;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashingService;
     private final WalletRepository walletRepository;
     private final UserXPRepository userXPRepository;
     private final SavingsRepository savingsRepository;
@@ -32,20 +37,25 @@ public class UserService {
     private final RedemptionRepository redemptionRepository;
     private final TaskAssignmentRepository taskAssignmentRepository;
     private final TransactionRepository transactionRepository;
+    private final WalletMonthlyRollupRepository walletMonthlyRollupRepository;
+    private final WalletHoldRepository walletHoldRepository;
+    private final TaskAssignmentArchiveRepository taskAssignmentArchiveRepository;
+    private final TaskRepository taskRepository;
+    private final JwtTokenProvider jwtTokenProvider;
 
-    // Retorna o usuário autenticado
+    // Retorna o usuário autenticado (servido pelo cache)
     public UserResponse getCurrentUser() {
-        User user = getAuthenticatedUser();
-        return UserResponse.fromUser(user);
+        AuthenticatedUser principal = securityHelper.getAuthenticatedPrincipal();
+        return UserResponse.fromCachedUser(userCache.getUser(principal.getId()));
     }
 
     // Cria uma criança (apenas PARENT pode)
     @Transactional
     public UserResponse createChild(CreateChildRequest request) {
-        User parent = getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
 
         // Verifica se o usuário é PARENT
-        if (parent.getRole() != UserRole.PARENT) {
+        if (!parent.isParent()) {
             throw new UnauthorizedException("Apenas pais podem criar perfis de crianças");
         }
 
@@ -57,10 +67,10 @@ public class UserService {
         // Cria a criança
         User child = new User();
         child.setUsername(request.getUsername());
-        child.setPassword(passwordEncoder.encode(request.getPin())); // PIN vira senha
+        child.setPassword(passwordHashingService.encode(request.getPin())); // PIN vira senha
         child.setFullName(request.getFullName());
         child.setRole(UserRole.CHILD);
-        child.setFamily(parent.getFamily());
+        child.setFamily(familyRepository.getReferenceById(parent.getFamilyId()));
         child.setPin(request.getPin());
         child.setAvatarUrl(request.getAvatarUrl());
         child = userRepository.save(child);
@@ -89,33 +99,35 @@ public class UserService {
         savings.setTotalEarned(0);
         savingsRepository.save(savings);
 
+        userCache.invalidateFamily(parent.getFamilyId());
+
         return UserResponse.fromUser(child);
     }
 
     // Lista todas as crianças da família (apenas PARENT pode)
     public List<UserResponse> getChildren() {
-        User parent = getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
 
         // Verifica se o usuário é PARENT
-        if (parent.getRole() != UserRole.PARENT) {
+        if (!parent.isParent()) {
             throw new UnauthorizedException("Apenas pais podem listar crianças");
         }
 
-        // Busca crianças da mesma família
-        List<User> children = userRepository.findByFamilyIdAndRole(parent.getFamily().getId(), UserRole.CHILD);
+        // Busca crianças da mesma família (servido pelo cache)
+        List<CachedUser> children = userCache.getFamilyMembers(parent.getFamilyId(), UserRole.CHILD);
 
         return children.stream()
-                .map(UserResponse::fromUser)
+                .map(UserResponse::fromCachedUser)
                 .collect(Collectors.toList());
     }
 
     // Deleta uma criança (apenas PARENT pode)
     @Transactional
     public void deleteChild(UUID childId) {
-        User parent = getAuthenticatedUser();
+        AuthenticatedUser parent = securityHelper.getAuthenticatedPrincipal();
 
         // Verifica se o usuário é PARENT
-        if (parent.getRole() != UserRole.PARENT) {
+        if (!parent.isParent()) {
             throw new UnauthorizedException("Apenas pais podem deletar perfis de crianças");
         }
 
@@ -129,7 +141,7 @@ public class UserService {
         }
 
         // Valida que a criança é da mesma família
-        if (!child.getFamily().getId().equals(parent.getFamily().getId())) {
+        if (!child.getFamily().getId().equals(parent.getFamilyId())) {
             throw new UnauthorizedException("Você não pode deletar crianças de outra família");
         }
 
@@ -153,10 +165,14 @@ public class UserService {
         // 5. Deletar TaskAssignments
         List<TaskAssignment> taskAssignments = taskAssignmentRepository.findByAssignedToChildId(childId);
         taskAssignmentRepository.deleteAll(taskAssignments);
+        taskAssignmentArchiveRepository.deleteByAssignedToChildId(childId);
+        taskRepository.deleteRecurringTargetsByChildId(childId);
 
-        // 6. Deletar Transactions (depende do Wallet)
+        // 6. Deletar reservas, Transactions e resumo mensal (dependem do Wallet)
         Wallet wallet = walletRepository.findByChildId(childId).orElse(null);
         if (wallet != null) {
+            walletHoldRepository.deleteByWalletId(wallet.getId());
+            walletMonthlyRollupRepository.deleteByWalletId(wallet.getId());
             List<Transaction> transactions = transactionRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId());
             transactionRepository.deleteAll(transactions);
             walletRepository.delete(wallet);
@@ -176,25 +192,24 @@ public class UserService {
 
         // 9. Finalmente, deletar o User
         userRepository.delete(child);
+
+        // Access tokens da criança deixam de valer (o principal vem das claims, sem consultar o banco)
+        jwtTokenProvider.revokeTokens(childId);
+
+        userCache.invalidateUser(childId);
+        userCache.invalidateFamily(parent.getFamilyId());
     }
 
     // Atualiza o avatar do usuário autenticado (PARENT ou CHILD)
     @Transactional
     public UserResponse updateAvatar(String avatarUrl) {
-        User user = getAuthenticatedUser();
+        User user = securityHelper.getAuthenticatedUser();
         user.setAvatarUrl(avatarUrl);
         user = userRepository.save(user);
-        return UserResponse.fromUser(user);
-    }
 
-    // Obtém o usuário autenticado
-    private User getAuthenticatedUser() {
-        String emailOrUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        userCache.invalidateUser(user.getId());
+        userCache.invalidateFamily(user.getFamily().getId());
 
-        // Tenta buscar por email primeiro (PARENT), depois por username (CHILD)
-        // USA MÉTODOS COM JOIN FETCH para evitar LazyInitializationException
-        return userRepository.findByEmailWithFamily(emailOrUsername)
-                .orElseGet(() -> userRepository.findByUsernameWithFamily(emailOrUsername)
-                        .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado")));
+        return UserResponse.fromUser(user);
     }
 }
@@ -0,0 +1,26 @@
+package com.educacaofinanceira.service;
+
+import java.util.UUID;
+
+/**
+ * Estratégia de atualização do saldo da carteira
+ * Selecionada por deployment em wallet.concurrency-mode:
+ * - pessimistic (padrão): SELECT ... FOR UPDATE
+ * - optimistic: leitura sem lock + UPDATE condicionado à @Version, com retry e backoff
+ * - atomic: um único UPDATE ... RETURNING (saldo insuficiente verificado no SQL)
+ */
+public interface WalletBalanceUpdater {
+
+    BalanceChange credit(UUID childId, Integer amount);
+
+    /**
+     * Lança IllegalArgumentException se não houver saldo suficiente
+     */
+    BalanceChange debit(UUID childId, Integer amount);
+
+    /**
+     * Resultado de uma movimentação (usado para registrar a Transaction)
+     */
+    record BalanceChange(UUID walletId, Integer balanceBefore, Integer balanceAfter) {
+    }
+}
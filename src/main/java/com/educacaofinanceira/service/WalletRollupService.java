@@ -0,0 +1,209 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.dto.response.MonthlyStatementResponse;
+import com.educacaofinanceira.model.Transaction;
+import com.educacaofinanceira.model.WalletMonthlyRollup;
+import com.educacaofinanceira.model.enums.TransactionType;
+import com.educacaofinanceira.repository.WalletMonthlyRollupRepository;
+import com.educacaofinanceira.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mantém e consulta o resumo mensal das carteiras (wallet_monthly_rollup)
+ *
+ * - record(): chamado pelo WalletService na MESMA transação do crédito/débito
+ * - backfill: recalcula carteira por carteira a partir das transações (idempotente)
+ * - extratos: leem apenas o resumo, custo O(meses)
+ */
+@Slf4j
+@Service
+public class WalletRollupService {
+
+    private static final int MAX_STATEMENT_MONTHS = 120;
+
+    private final WalletMonthlyRollupRepository rollupRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int backfillBatchSize;
+
+    public WalletRollupService(WalletMonthlyRollupRepository rollupRepository,
+                               WalletRepository walletRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${wallet.rollup.backfill-on-startup:false}") Boolean backfillOnStartup,
+                               @Value("${wallet.rollup.backfill-batch-size:200}") Integer backfillBatchSize) {
+        this.rollupRepository = rollupRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    /**
+     * Soma as transações recém-criadas ao resumo mensal
+     * Transações do mesmo (carteira, mês, tipo de referência) viram um único upsert
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<Transaction> transactions) {
+        Map<String, Group> groups = new LinkedHashMap<>();
+
+        for (Transaction transaction : transactions) {
+            UUID walletId = transaction.getWallet().getId();
+            LocalDate month = transaction.getCreatedAt().toLocalDate().withDayOfMonth(1);
+            String referenceType = transaction.getReferenceType() != null
+                    ? transaction.getReferenceType().name()
+                    : WalletMonthlyRollup.NO_REFERENCE;
+
+            groups.computeIfAbsent(walletId + "|" + month + "|" + referenceType,
+                    key -> new Group(walletId, month, referenceType)).add(transaction);
+        }
+
+        for (Group group : groups.values()) {
+            rollupRepository.upsert(UUID.randomUUID(), group.walletId, group.month, group.referenceType,
+                    group.creditTotal, group.debitTotal, group.creditCount, group.debitCount,
+                    group.closingBalance, group.lastTransactionAt);
+        }
+    }
+
+    /**
+     * Extrato mensal (meses sem movimentação não aparecem)
+     * Período padrão: últimos 12 meses
+     * Acesso à carteira deve ser validado antes (WalletService.getStatements)
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyStatementResponse> getStatements(UUID walletId, YearMonth from, YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Mês inicial deve ser anterior ao mês final");
+        }
+        if (start.plusMonths(MAX_STATEMENT_MONTHS).isBefore(end)) {
+            throw new IllegalArgumentException("Período máximo: " + MAX_STATEMENT_MONTHS + " meses");
+        }
+
+        List<WalletMonthlyRollup> rows = rollupRepository.findByWalletIdAndPeriod(
+                walletId, start.atDay(1), end.atDay(1));
+
+        // Agrupa as linhas por mês (já ordenadas do mais recente para o mais antigo)
+        Map<YearMonth, MonthlyStatementResponse> statements = new LinkedHashMap<>();
+        Map<YearMonth, LocalDateTime> closingAt = new LinkedHashMap<>();
+
+        for (WalletMonthlyRollup row : rows) {
+            YearMonth month = YearMonth.from(row.getMonth());
+            MonthlyStatementResponse statement = statements.computeIfAbsent(month, MonthlyStatementResponse::new);
+
+            statement.setTotalCredits(statement.getTotalCredits() + row.getCreditTotal());
+            statement.setTotalDebits(statement.getTotalDebits() + row.getDebitTotal());
+            statement.setCreditCount(statement.getCreditCount() + row.getCreditCount());
+            statement.setDebitCount(statement.getDebitCount() + row.getDebitCount());
+            statement.getByReferenceType().add(new MonthlyStatementResponse.ReferenceTotals(
+                    row.getReferenceType(), row.getCreditTotal(), row.getDebitTotal(),
+                    row.getCreditCount(), row.getDebitCount()));
+
+            // Saldo de fechamento: o da transação mais recente do mês, entre todos os tipos
+            LocalDateTime latest = closingAt.get(month);
+            if (latest == null || row.getLastTransactionAt().isAfter(latest)) {
+                closingAt.put(month, row.getLastTransactionAt());
+                statement.setClosingBalance(row.getClosingBalance());
+            }
+        }
+
+        return new ArrayList<>(statements.values());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            Thread thread = new Thread(this::backfillAll, "wallet-rollup-backfill");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Recalcula o resumo de todas as carteiras, uma transação por carteira
+     * A carteira fica bloqueada (FOR UPDATE) durante o recálculo, então créditos
+     * concorrentes esperam e são somados depois - nada é contado duas vezes
+     */
+    public void backfillAll() {
+        long started = System.currentTimeMillis();
+        int wallets = 0;
+        int page = 0;
+
+        List<UUID> walletIds;
+        do {
+            walletIds = walletRepository.findAllIds(PageRequest.of(page++, backfillBatchSize, Sort.by("id")));
+            for (UUID walletId : walletIds) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> rebuild(walletId));
+                    wallets++;
+                } catch (RuntimeException e) {
+                    log.error("Falha ao recalcular resumo mensal da carteira {}", walletId, e);
+                }
+            }
+        } while (walletIds.size() == backfillBatchSize);
+
+        log.info("Resumo mensal recalculado para {} carteiras em {} ms", wallets,
+                System.currentTimeMillis() - started);
+    }
+
+    private void rebuild(UUID walletId) {
+        walletRepository.lockById(walletId);
+        rollupRepository.deleteByWalletId(walletId);
+        rollupRepository.rebuildForWallet(walletId);
+    }
+
+    // Acumulador de um (carteira, mês, tipo de referência)
+    private static final class Group {
+        private final UUID walletId;
+        private final LocalDate month;
+        private final String referenceType;
+        private long creditTotal;
+        private long debitTotal;
+        private int creditCount;
+        private int debitCount;
+        private int closingBalance;
+        private LocalDateTime lastTransactionAt;
+
+        Group(UUID walletId, LocalDate month, String referenceType) {
+            this.walletId = walletId;
+            this.month = month;
+            this.referenceType = referenceType;
+        }
+
+        void add(Transaction transaction) {
+            if (transaction.getType() == TransactionType.CREDIT) {
+                creditTotal += transaction.getAmount();
+                creditCount++;
+            } else {
+                debitTotal += transaction.getAmount();
+                debitCount++;
+            }
+
+            if (lastTransactionAt == null || !transaction.getCreatedAt().isBefore(lastTransactionAt)) {
+                lastTransactionAt = transaction.getCreatedAt();
+                closingBalance = transaction.getBalanceAfter();
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.educacaofinanceira.service;
 
+import com.educacaofinanceira.dto.response.CursorPage;
+import com.educacaofinanceira.dto.response.MonthlyStatementResponse;
 import com.educacaofinanceira.dto.response.TransactionResponse;
 import com.educacaofinanceira.dto.response.WalletResponse;
 import com.educacaofinanceira.exception.ResourceNotFoundException;
@@ -7,18 +9,29 @@ import com.educacaofinanceira.exception.UnauthorizedException;
 import com.educacaofinanceira.model.Transaction;
 import com.educacaofinanceira.model.User;
 import com.educacaofinanceira.model.Wallet;
+import com.educacaofinanceira.model.WalletHold;
+import com.educacaofinanceira.model.enums.HoldStatus;
 import com.educacaofinanceira.model.enums.ReferenceType;
 import com.educacaofinanceira.model.enums.TransactionType;
-import com.educacaofinanceira.model.enums.UserRole;
 import com.educacaofinanceira.repository.TransactionRepository;
+import com.educacaofinanceira.repository.WalletHoldRepository;
 import com.educacaofinanceira.repository.WalletRepository;
+import com.educacaofinanceira.repository.WalletRepository.WalletBalance;
+import com.educacaofinanceira.repository.WalletRepository.WalletVersion;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import com.educacaofinanceira.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import lombok.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -28,40 +41,23 @@ public class WalletService {
 
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
+    private final WalletBalanceUpdater walletBalanceUpdater;
+    private final WalletRollupService walletRollupService;
+    private final WalletHoldRepository walletHoldRepository;
+    private final PersistenceContextRefresher persistenceContextRefresher;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     /**
      * Credita moedas na carteira da criança
-     * Usa lock pessimista para evitar race conditions
+     * Concorrência controlada pelo WalletBalanceUpdater (pessimista ou otimista)
      */
     @Transactional
     public Integer credit(UUID childId, Integer amount, String description,
                          ReferenceType referenceType, UUID referenceId) {
-        // Buscar wallet com lock
-        Wallet wallet = walletRepository.findByChildIdWithLock(childId)
-                .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
-
-        // Calcular balances
-        Integer balanceBefore = wallet.getBalance();
-        wallet.setBalance(wallet.getBalance() + amount);
-        wallet.setTotalEarned(wallet.getTotalEarned() + amount);
-        Integer balanceAfter = wallet.getBalance();
-
-        // Criar transação
-        Transaction transaction = new Transaction();
-        transaction.setWallet(wallet);
-        transaction.setType(TransactionType.CREDIT);
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setDescription(description);
-        transaction.setReferenceType(referenceType);
-        transaction.setReferenceId(referenceId);
-
-        // Salvar
-        walletRepository.save(wallet);
-        transactionRepository.save(transaction);
-
-        return balanceAfter;
+        WalletBalanceUpdater.BalanceChange change = walletBalanceUpdater.credit(childId, amount);
+        record(change, TransactionType.CREDIT, amount, description, referenceType, referenceId);
+        return change.balanceAfter();
     }
 
     /**
@@ -71,38 +67,93 @@ public class WalletService {
     @Transactional
     public Integer debit(UUID childId, Integer amount, String description,
                         ReferenceType referenceType, UUID referenceId) {
-        // Buscar wallet com lock
-        Wallet wallet = walletRepository.findByChildIdWithLock(childId)
-                .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
+        WalletBalanceUpdater.BalanceChange change = walletBalanceUpdater.debit(childId, amount);
+        record(change, TransactionType.DEBIT, amount, description, referenceType, referenceId);
+        return change.balanceAfter();
+    }
 
-        // Validar saldo
-        if (wallet.getBalance() < amount) {
-            throw new IllegalArgumentException("Saldo insuficiente. Saldo atual: " +
-                    wallet.getBalance() + " moedas");
+    /**
+     * Reserva moedas sem debitar (ex.: resgate aguardando aprovação)
+     * Um único UPDATE condicionado ao saldo disponível: é o único lock da carteira no pedido
+     * Nenhuma Transaction é gravada; retorna o ID da reserva
+     */
+    @Transactional
+    public UUID reserve(UUID childId, Integer amount, ReferenceType referenceType, UUID referenceId) {
+        WalletBalance wallet = walletRepository.reserveReturning(childId, amount).orElse(null);
+
+        if (wallet == null) {
+            // Nenhuma linha: carteira inexistente ou saldo disponível insuficiente
+            WalletVersion current = walletRepository.findVersionByChildId(childId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
+            throw new IllegalArgumentException("Saldo insuficiente. Saldo disponível: " +
+                    (current.getBalance() - current.getHeld()) + " moedas");
         }
 
-        // Calcular balances
-        Integer balanceBefore = wallet.getBalance();
-        wallet.setBalance(wallet.getBalance() - amount);
-        wallet.setTotalSpent(wallet.getTotalSpent() + amount);
-        Integer balanceAfter = wallet.getBalance();
+        persistenceContextRefresher.refreshIfLoaded(Wallet.class, wallet.getId());
 
-        // Criar transação
-        Transaction transaction = new Transaction();
-        transaction.setWallet(wallet);
-        transaction.setType(TransactionType.DEBIT);
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setDescription(description);
-        transaction.setReferenceType(referenceType);
-        transaction.setReferenceId(referenceId);
+        WalletHold hold = new WalletHold();
+        hold.setWallet(walletRepository.getReferenceById(wallet.getId()));
+        hold.setAmount(amount);
+        hold.setStatus(HoldStatus.ACTIVE);
+        hold.setReferenceType(referenceType);
+        hold.setReferenceId(referenceId);
+        return walletHoldRepository.save(hold).getId();
+    }
+
+    /**
+     * Liquida uma reserva: vira um único DEBIT no ledger
+     * Retorna o saldo após o débito
+     */
+    @Transactional
+    public Integer settleHold(UUID holdId, String description) {
+        WalletHold hold = resolveHold(holdId, HoldStatus.SETTLED);
+        UUID walletId = hold.getWallet().getId();
+        Integer amount = hold.getAmount();
+
+        WalletBalance wallet = walletRepository.settleReturning(walletId, amount)
+                .orElseThrow(() -> new IllegalStateException("Valor reservado na carteira menor que a reserva"));
+        persistenceContextRefresher.refreshIfLoaded(Wallet.class, walletId);
+
+        WalletBalanceUpdater.BalanceChange change = new WalletBalanceUpdater.BalanceChange(
+                walletId, wallet.getBalance() + amount, wallet.getBalance());
+        record(change, TransactionType.DEBIT, amount, description, hold.getReferenceType(), hold.getReferenceId());
+        return change.balanceAfter();
+    }
 
-        // Salvar
-        walletRepository.save(wallet);
-        transactionRepository.save(transaction);
+    /**
+     * Libera uma reserva: as moedas voltam a ficar disponíveis
+     * O saldo nunca mudou, então nada é escrito no ledger
+     */
+    @Transactional
+    public void releaseHold(UUID holdId) {
+        WalletHold hold = resolveHold(holdId, HoldStatus.RELEASED);
+        UUID walletId = hold.getWallet().getId();
 
-        return balanceAfter;
+        if (walletRepository.releaseHeld(walletId, hold.getAmount()) == 0) {
+            throw new IllegalStateException("Valor reservado na carteira menor que a reserva");
+        }
+        persistenceContextRefresher.refreshIfLoaded(Wallet.class, walletId);
+    }
+
+    /**
+     * Credita várias entradas (uma ou mais por criança) em uma única transação
+     * Sempre com lock pessimista (várias carteiras, ordem de lock determinística)
+     * - Um SELECT ... FOR UPDATE para todas as carteiras, em ordem determinística
+     * - Todas as transações inseridas em lote JDBC (hibernate.jdbc.batch_size)
+     * Retorna o saldo final de cada criança
+     */
+    @Transactional
+    public Map<UUID, Integer> creditBatch(List<LedgerEntry> entries) {
+        return applyBatch(entries, TransactionType.CREDIT);
+    }
+
+    /**
+     * Debita várias entradas em uma única transação
+     * Se alguma carteira não tiver saldo, nenhuma entrada é aplicada (rollback)
+     */
+    @Transactional
+    public Map<UUID, Integer> debitBatch(List<LedgerEntry> entries) {
+        return applyBatch(entries, TransactionType.DEBIT);
     }
 
     /**
@@ -110,7 +161,7 @@ public class WalletService {
      * Valida acesso: pai da família ou própria criança
      */
     @Transactional(readOnly = true)
-    public WalletResponse getWallet(UUID childId, User requestingUser) {
+    public WalletResponse getWallet(UUID childId, AuthenticatedUser requestingUser) {
         // USA JOIN FETCH para evitar LazyInitializationException ao acessar wallet.getChild()
         Wallet wallet = walletRepository.findByChildIdWithChild(childId)
                 .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
@@ -121,13 +172,43 @@ public class WalletService {
         return WalletResponse.fromWallet(wallet);
     }
 
+    /**
+     * Retorna o ID da carteira após validar o acesso (usado pela exportação)
+     */
+    @Transactional(readOnly = true)
+    public UUID getAccessibleWalletId(UUID childId, AuthenticatedUser requestingUser) {
+        Wallet wallet = walletRepository.findByChildIdWithChild(childId)
+                .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
+
+        // Validar acesso
+        validateAccess(wallet.getChild(), requestingUser);
+
+        return wallet.getId();
+    }
+
+    /**
+     * Extrato mensal da criança (lido do resumo mensal, não das transações)
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyStatementResponse> getStatements(UUID childId, AuthenticatedUser requestingUser,
+                                                        YearMonth from, YearMonth to) {
+        UUID walletId = getAccessibleWalletId(childId, requestingUser);
+        return walletRollupService.getStatements(walletId, from, to);
+    }
+
     /**
      * Busca o histórico de transações de uma criança
-     * Com paginação
+     * Paginação por keyset (cursor): custo constante em qualquer profundidade
+     * Sem cursor, usa o offset legado; em ambos os casos devolve o cursor da próxima página
      */
     @Transactional(readOnly = true)
-    public List<TransactionResponse> getTransactions(UUID childId, User requestingUser,
-                                                     Integer limit, Integer offset) {
+    public CursorPage<TransactionResponse> getTransactions(UUID childId, AuthenticatedUser requestingUser,
+                                                           Integer limit, Integer offset, String cursor) {
+        if (limit == null || limit < 1 || offset == null || offset < 0) {
+            throw new IllegalArgumentException("Parâmetros de paginação inválidos");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+
         // USA JOIN FETCH para evitar LazyInitializationException ao acessar wallet.getChild()
         Wallet wallet = walletRepository.findByChildIdWithChild(childId)
                 .orElseThrow(() -> new ResourceNotFoundException("Carteira não encontrada"));
@@ -135,14 +216,118 @@ public class WalletService {
         // Validar acesso
         validateAccess(wallet.getChild(), requestingUser);
 
-        // Buscar transações com paginação
-        Pageable pageable = PageRequest.of(offset / limit, limit);
-        List<Transaction> transactions = transactionRepository
-                .findByWalletIdOrderByCreatedAtDesc(wallet.getId(), pageable);
+        // Busca um item a mais para saber se existe próxima página
+        List<Transaction> transactions;
+        if (cursor != null) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            transactions = transactionRepository.findPageAfter(
+                    wallet.getId(), position.createdAt(), position.id(), pageSize + 1);
+        } else if (offset > 0) {
+            transactions = transactionRepository.findPageByOffset(wallet.getId(), pageSize + 1, offset);
+        } else {
+            transactions = transactionRepository.findFirstPage(wallet.getId(), pageSize + 1);
+        }
+
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            Transaction last = transactions.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
 
-        return transactions.stream()
+        List<TransactionResponse> items = transactions.stream()
                 .map(TransactionResponse::fromTransaction)
                 .collect(Collectors.toList());
+
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    private Map<UUID, Integer> applyBatch(List<LedgerEntry> entries, TransactionType type) {
+        if (entries.isEmpty()) {
+            return Map.of();
+        }
+
+        // Lock de todas as carteiras envolvidas (ordenado por ID)
+        Set<UUID> childIds = entries.stream()
+                .map(LedgerEntry::getChildId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findByChildIdsWithLock(childIds)) {
+            wallets.put(wallet.getChild().getId(), wallet);
+        }
+
+        if (wallets.size() != childIds.size()) {
+            throw new ResourceNotFoundException("Carteira não encontrada");
+        }
+
+        // Aplica as entradas na ordem recebida
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            Wallet wallet = wallets.get(entry.getChildId());
+            Integer balanceBefore = wallet.getBalance();
+
+            if (type == TransactionType.CREDIT) {
+                wallet.setBalance(balanceBefore + entry.getAmount());
+                wallet.setTotalEarned(wallet.getTotalEarned() + entry.getAmount());
+            } else {
+                int available = balanceBefore - wallet.getHeld();
+                if (available < entry.getAmount()) {
+                    throw new IllegalArgumentException("Saldo insuficiente. Saldo disponível: " +
+                            available + " moedas");
+                }
+                wallet.setBalance(balanceBefore - entry.getAmount());
+                wallet.setTotalSpent(wallet.getTotalSpent() + entry.getAmount());
+            }
+
+            transactions.add(newTransaction(wallet, type, entry.getAmount(), balanceBefore, wallet.getBalance(),
+                    entry.getDescription(), entry.getReferenceType(), entry.getReferenceId()));
+        }
+
+        // INSERTs em lote; UPDATEs das carteiras saem no flush (dirty checking, também em lote)
+        transactionRepository.saveAll(transactions);
+        walletRollupService.record(transactions);
+
+        Map<UUID, Integer> balances = new HashMap<>();
+        wallets.forEach((childId, wallet) -> balances.put(childId, wallet.getBalance()));
+        return balances;
+    }
+
+    // Finaliza a reserva uma única vez (UPDATE condicional ao status ACTIVE)
+    private WalletHold resolveHold(UUID holdId, HoldStatus status) {
+        WalletHold hold = walletHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada"));
+
+        if (walletHoldRepository.resolve(holdId, status, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Esta reserva já foi finalizada");
+        }
+        return hold;
+    }
+
+    // Registra a Transaction de uma movimentação já aplicada ao saldo
+    private void record(WalletBalanceUpdater.BalanceChange change, TransactionType type, Integer amount,
+                        String description, ReferenceType referenceType, UUID referenceId) {
+        Wallet wallet = walletRepository.getReferenceById(change.walletId());
+        Transaction transaction = transactionRepository.save(newTransaction(wallet, type, amount,
+                change.balanceBefore(), change.balanceAfter(), description, referenceType, referenceId));
+
+        // Resumo mensal atualizado na mesma transação
+        walletRollupService.record(List.of(transaction));
+    }
+
+    private Transaction newTransaction(Wallet wallet, TransactionType type, Integer amount,
+                                       Integer balanceBefore, Integer balanceAfter,
+                                       String description, ReferenceType referenceType, UUID referenceId) {
+        Transaction transaction = new Transaction();
+        transaction.setWallet(wallet);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setBalanceBefore(balanceBefore);
+        transaction.setBalanceAfter(balanceAfter);
+        transaction.setDescription(description);
+        transaction.setReferenceType(referenceType);
+        transaction.setReferenceId(referenceId);
+        return transaction;
     }
 
     /**
@@ -150,10 +335,10 @@ public class WalletService {
      * - PARENT: deve ser da mesma família
      * - CHILD: deve ser a própria criança
      */
-    private void validateAccess(User child, User requestingUser) {
-        if (requestingUser.getRole() == UserRole.PARENT) {
+    private void validateAccess(User child, AuthenticatedUser requestingUser) {
+        if (requestingUser.isParent()) {
             // Pai deve ser da mesma família
-            if (!child.getFamily().getId().equals(requestingUser.getFamily().getId())) {
+            if (!child.getFamily().getId().equals(requestingUser.getFamilyId())) {
                 throw new UnauthorizedException("Você não tem acesso a esta carteira");
             }
         } else {
@@ -163,4 +348,16 @@ public class WalletService {
             }
         }
     }
+
+    /**
+     * Movimentação de carteira usada por creditBatch/debitBatch
+     */
+    @Value
+    public static class LedgerEntry {
+        UUID childId;
+        Integer amount;
+        String description;
+        ReferenceType referenceType;
+        UUID referenceId;
+    }
 }
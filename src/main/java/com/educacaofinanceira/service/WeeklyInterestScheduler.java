@@ -0,0 +1,100 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.model.Family;
+import com.educacaofinanceira.repository.FamilyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rendimento semanal das poupanças no domingo local de cada família
+ *
+ * - Família devida: domingo (Family.timeZone) começou e a faixa de horário (hash do ID) já passou
+ * - Uma transação por família (SavingsService.applyWeeklyInterest): falha afeta só a família,
+ *   que volta na execução seguinte
+ * - Acima de family-schedule.max-families-per-run, o restante fica para a execução seguinte
+ */
+@Slf4j
+@Service
+public class WeeklyInterestScheduler {
+
+    private final FamilyRepository familyRepository;
+    private final SavingsService savingsService;
+    private final Counter familiesCounter;
+    private final Counter failedFamiliesCounter;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final int slots;
+    private final int slotMinutes;
+    private final int maxFamiliesPerRun;
+
+    public WeeklyInterestScheduler(FamilyRepository familyRepository,
+                                   SavingsService savingsService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${family-schedule.slots:16}") Integer slots,
+                                   @Value("${family-schedule.slot-minutes:15}") Integer slotMinutes,
+                                   @Value("${family-schedule.max-families-per-run:2000}") Integer maxFamiliesPerRun) {
+        this.familyRepository = familyRepository;
+        this.savingsService = savingsService;
+        this.slots = Math.max(1, slots);
+        this.slotMinutes = Math.max(1, slotMinutes);
+        this.maxFamiliesPerRun = Math.max(1, maxFamiliesPerRun);
+        this.familiesCounter = Counter.builder("kidscoin.savings.interest.families")
+                .tag("result", "ok")
+                .register(meterRegistry);
+        this.failedFamiliesCounter = Counter.builder("kidscoin.savings.interest.families")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executado a cada 15 minutos (family-schedule.cron)
+     */
+    @Scheduled(cron = "${family-schedule.cron:0 */15 * * * *}")
+    public void applyWeeklyInterest() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Rendimento semanal já em andamento - ignorando");
+            return;
+        }
+
+        try {
+            List<Family> families = familyRepository.findDueForWeeklyInterest(slots, slotMinutes, maxFamiliesPerRun);
+            if (families.isEmpty()) {
+                return;
+            }
+
+            log.info("Aplicando rendimento semanal nas poupanças de {} famílias...", families.size());
+            int savings = 0;
+            int failed = 0;
+
+            for (Family family : families) {
+                try {
+                    savings += savingsService.applyWeeklyInterest(family.getId(), lastSunday(family.getTimeZone()));
+                    familiesCounter.increment();
+                } catch (RuntimeException e) {
+                    failed++;
+                    failedFamiliesCounter.increment();
+                    log.error("Rendimento semanal da família {} não aplicado", family.getId(), e);
+                }
+            }
+
+            log.info("Rendimento semanal aplicado em {} poupanças ({} famílias, {} com falha)",
+                    savings, families.size(), failed);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Domingo mais recente no fuso da família (hoje, se for domingo)
+    private LocalDate lastSunday(String timeZone) {
+        LocalDate today = LocalDate.now(ZoneId.of(timeZone));
+        return today.minusDays(today.getDayOfWeek().getValue() % 7);
+    }
+}
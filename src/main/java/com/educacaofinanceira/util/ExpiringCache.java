@@ -0,0 +1,138 @@
+package com.educacaofinanceira.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Cache em memória, limitado em tamanho, com expiração por entrada
+ *
+ * - Entradas expiradas são descartadas na leitura e nas varreduras
+ * - Ao atingir o limite, remove as expiradas e, se ainda estiver cheio,
+ *   descarta entradas arbitrárias (o cache é apenas uma otimização)
+ * - Thread-safe (ConcurrentHashMap)
+ */
+public class ExpiringCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize deve ser positivo");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Retorna o valor em cache ou null se ausente/expirado
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Armazena um valor que expira no instante informado (epoch millis)
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict();
+        }
+
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    /**
+     * Armazena um valor que expira após o TTL informado
+     */
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Remove as entradas cujo valor atende ao filtro (varre o cache inteiro)
+     */
+    public void invalidateIf(Predicate<V> filter) {
+        entries.values().removeIf(entry -> filter.test(entry.value));
+    }
+
+    /**
+     * Remove todas as entradas expiradas
+     * Retorna a quantidade removida
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        for (Map.Entry<K, Entry<V>> e : entries.entrySet()) {
+            if (e.getValue().isExpired(now) && entries.remove(e.getKey(), e.getValue())) {
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    // Abre espaço para novas entradas
+    private void evict() {
+        purgeExpired();
+
+        // Ainda cheio: descarta ~10% das entradas para não varrer a cada put
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<K> iterator = entries.keySet().iterator();
+        while (toRemove > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            toRemove--;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+}
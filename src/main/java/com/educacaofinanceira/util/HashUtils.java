@@ -0,0 +1,29 @@
+package com.educacaofinanceira.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utilitários de hash
+ */
+public final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * Calcula o SHA-256 de um texto e retorna em hexadecimal (64 caracteres)
+     */
+    public static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 é obrigatório em toda JVM
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
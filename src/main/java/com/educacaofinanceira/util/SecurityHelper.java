@@ -1,9 +1,12 @@
 package com.educacaofinanceira.util;
 
 import com.educacaofinanceira.exception.ResourceNotFoundException;
+import com.educacaofinanceira.exception.UnauthorizedException;
 import com.educacaofinanceira.model.User;
 import com.educacaofinanceira.repository.UserRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,18 +21,27 @@ public class SecurityHelper {
     private final UserRepository userRepository;
 
     /**
-     * Retorna o usuário autenticado atualmente
-     * Busca por email (PARENT) ou username (CHILD)
+     * Retorna o principal autenticado (ID, papel e família vindos do JWT)
+     * Não acessa o banco - use para validações de papel e de família
+     */
+    public AuthenticatedUser getAuthenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw new UnauthorizedException("Usuário não autenticado");
+        }
+
+        return principal;
+    }
+
+    /**
+     * Retorna a entidade do usuário autenticado
      * Usa JOIN FETCH para carregar Family EAGER, evitando LazyInitializationException
+     * Só use quando a requisição realmente precisa dos dados do User
      */
     @Transactional(readOnly = true)
     public User getAuthenticatedUser() {
-        String emailOrUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-
-        // Tenta buscar por email primeiro (PARENT), depois por username (CHILD)
-        // Usa métodos com JOIN FETCH para carregar Family junto com User
-        return userRepository.findByEmailWithFamily(emailOrUsername)
-                .orElseGet(() -> userRepository.findByUsernameWithFamily(emailOrUsername)
-                        .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado")));
+        return userRepository.findByIdWithFamily(getAuthenticatedPrincipal().getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
     }
 }
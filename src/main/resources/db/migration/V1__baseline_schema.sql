@@ -0,0 +1,416 @@
+-- ========================================
+-- V1: Esquema base (entidades + scripts MIGRATE_*.sql anteriores)
+-- ========================================
+-- Idempotente: em bancos criados pelo ddl-auto: update (baseline-on-migrate, versão 0)
+-- só cria o que estiver faltando; em banco vazio cria tudo
+
+-- ========================================
+-- 1. Tabelas
+-- ========================================
+CREATE TABLE IF NOT EXISTS families (
+    id UUID PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id UUID PRIMARY KEY,
+    email VARCHAR(100) UNIQUE,
+    username VARCHAR(50) UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    full_name VARCHAR(100) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    family_id UUID NOT NULL,
+    pin VARCHAR(4),
+    avatar_url VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id UUID PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    user_id UUID NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    revoked BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id UUID PRIMARY KEY,
+    title VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    coin_value INTEGER NOT NULL,
+    xp_value INTEGER NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    created_by_user_id UUID NOT NULL,
+    family_id UUID NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    is_recurring BOOLEAN NOT NULL DEFAULT false,
+    recurrence_type VARCHAR(255),
+    recurrence_days VARCHAR(100),
+    recurrence_end_date DATE,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS task_assignments (
+    id UUID PRIMARY KEY,
+    task_id UUID NOT NULL,
+    assigned_to_child_id UUID NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    completed_at TIMESTAMP(6),
+    approved_at TIMESTAMP(6),
+    approved_by_user_id UUID,
+    rejection_reason VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+-- Sem FKs: as linhas são movidas de task_assignments com os IDs originais
+CREATE TABLE IF NOT EXISTS task_assignments_archive (
+    id UUID PRIMARY KEY,
+    task_id UUID NOT NULL,
+    assigned_to_child_id UUID NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    completed_at TIMESTAMP(6),
+    approved_at TIMESTAMP(6),
+    approved_by_user_id UUID,
+    rejection_reason VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS wallets (
+    id UUID PRIMARY KEY,
+    child_id UUID NOT NULL UNIQUE,
+    balance INTEGER NOT NULL,
+    held INTEGER NOT NULL DEFAULT 0,
+    total_earned INTEGER NOT NULL,
+    total_spent INTEGER NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id UUID PRIMARY KEY,
+    wallet_id UUID NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    amount INTEGER NOT NULL,
+    balance_before INTEGER NOT NULL,
+    balance_after INTEGER NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    reference_type VARCHAR(255),
+    reference_id UUID,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS wallet_holds (
+    id UUID PRIMARY KEY,
+    wallet_id UUID NOT NULL,
+    amount INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    reference_type VARCHAR(255) NOT NULL,
+    reference_id UUID,
+    created_at TIMESTAMP(6) NOT NULL,
+    resolved_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS wallet_monthly_rollup (
+    id UUID PRIMARY KEY,
+    wallet_id UUID NOT NULL,
+    month DATE NOT NULL,
+    reference_type VARCHAR(20) NOT NULL,
+    credit_total BIGINT NOT NULL,
+    debit_total BIGINT NOT NULL,
+    credit_count INTEGER NOT NULL,
+    debit_count INTEGER NOT NULL,
+    closing_balance INTEGER NOT NULL,
+    last_transaction_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_wallet_monthly_rollup UNIQUE (wallet_id, month, reference_type)
+);
+
+CREATE TABLE IF NOT EXISTS savings (
+    id UUID PRIMARY KEY,
+    child_id UUID NOT NULL UNIQUE,
+    balance INTEGER NOT NULL,
+    total_deposited INTEGER NOT NULL,
+    total_earned INTEGER NOT NULL,
+    last_deposit_at TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS rewards (
+    id UUID PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    coin_cost INTEGER NOT NULL,
+    category VARCHAR(50),
+    image_url VARCHAR(255),
+    is_active BOOLEAN NOT NULL,
+    created_by_user_id UUID NOT NULL,
+    family_id UUID NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS redemptions (
+    id UUID PRIMARY KEY,
+    reward_id UUID NOT NULL,
+    child_id UUID NOT NULL,
+    coin_amount INTEGER NOT NULL,
+    hold_id UUID,
+    status VARCHAR(255) NOT NULL,
+    reviewed_by_user_id UUID,
+    rejection_reason VARCHAR(500),
+    requested_at TIMESTAMP(6) NOT NULL,
+    reviewed_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    title VARCHAR(100) NOT NULL,
+    message VARCHAR(500) NOT NULL,
+    reference_type VARCHAR(255),
+    reference_id UUID,
+    is_read BOOLEAN NOT NULL,
+    read_at TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS badges (
+    id UUID PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(500),
+    icon_name VARCHAR(50) NOT NULL,
+    criteria_type VARCHAR(255) NOT NULL,
+    criteria_value INTEGER NOT NULL,
+    xp_bonus INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_badges (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    badge_id UUID NOT NULL,
+    unlocked_at TIMESTAMP(6) NOT NULL,
+    UNIQUE (user_id, badge_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_xp (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL UNIQUE,
+    current_level INTEGER NOT NULL,
+    current_xp INTEGER NOT NULL,
+    total_xp INTEGER NOT NULL,
+    last_level_up_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS reconciliation_runs (
+    id UUID PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    last_wallet_id UUID,
+    wallets_checked BIGINT NOT NULL,
+    transactions_checked BIGINT NOT NULL,
+    discrepancies BIGINT NOT NULL,
+    error VARCHAR(500),
+    started_at TIMESTAMP(6) NOT NULL,
+    finished_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS reconciliation_discrepancies (
+    id UUID PRIMARY KEY,
+    run_id UUID NOT NULL,
+    wallet_id UUID NOT NULL,
+    transaction_id UUID,
+    type VARCHAR(30) NOT NULL,
+    expected BIGINT NOT NULL,
+    actual BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    response_body TEXT,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_idempotency_keys_user_key UNIQUE (user_id, idempotency_key)
+);
+
+-- ========================================
+-- 2. Colunas adicionadas depois da criação das tabelas
+-- (antes aplicadas à mão: fix_email_nullable.sql e MIGRATE_*.sql)
+-- ========================================
+ALTER TABLE users ALTER COLUMN email DROP NOT NULL;
+ALTER TABLE users ALTER COLUMN username DROP NOT NULL;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS is_recurring BOOLEAN NOT NULL DEFAULT false;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS recurrence_type VARCHAR(255);
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS recurrence_days VARCHAR(100);
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS recurrence_end_date DATE;
+
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS held INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE redemptions ADD COLUMN IF NOT EXISTS hold_id UUID;
+
+-- Refresh tokens: token em texto puro substituído pelo hash SHA-256
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash VARCHAR(64);
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'refresh_tokens' AND column_name = 'token') THEN
+        DELETE FROM refresh_tokens WHERE expires_at < NOW();
+        UPDATE refresh_tokens
+        SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+        WHERE token_hash IS NULL;
+        ALTER TABLE refresh_tokens DROP COLUMN token;
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+    END IF;
+END $$;
+
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+
+-- ========================================
+-- 3. Foreign keys
+-- Só cria se a coluna ainda não tiver FK (bancos antigos têm os nomes gerados pelo Hibernate)
+-- ========================================
+CREATE FUNCTION pg_temp.add_foreign_key(tbl TEXT, col TEXT, ref TEXT, fk_name TEXT) RETURNS VOID AS $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.contype = 'f' AND c.conrelid = tbl::regclass AND a.attname = col
+    ) THEN
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I FOREIGN KEY (%I) REFERENCES %I (id)',
+                       tbl, fk_name, col, ref);
+    END IF;
+END
+$$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+    PERFORM pg_temp.add_foreign_key('users', 'family_id', 'families', 'fk_users_family');
+    PERFORM pg_temp.add_foreign_key('refresh_tokens', 'user_id', 'users', 'fk_refresh_tokens_user');
+    PERFORM pg_temp.add_foreign_key('tasks', 'created_by_user_id', 'users', 'fk_tasks_created_by');
+    PERFORM pg_temp.add_foreign_key('tasks', 'family_id', 'families', 'fk_tasks_family');
+    PERFORM pg_temp.add_foreign_key('task_assignments', 'task_id', 'tasks', 'fk_task_assignments_task');
+    PERFORM pg_temp.add_foreign_key('task_assignments', 'assigned_to_child_id', 'users', 'fk_task_assignments_child');
+    PERFORM pg_temp.add_foreign_key('task_assignments', 'approved_by_user_id', 'users', 'fk_task_assignments_approved_by');
+    PERFORM pg_temp.add_foreign_key('wallets', 'child_id', 'users', 'fk_wallets_child');
+    PERFORM pg_temp.add_foreign_key('transactions', 'wallet_id', 'wallets', 'fk_transactions_wallet');
+    PERFORM pg_temp.add_foreign_key('wallet_holds', 'wallet_id', 'wallets', 'fk_wallet_holds_wallet');
+    PERFORM pg_temp.add_foreign_key('wallet_monthly_rollup', 'wallet_id', 'wallets', 'fk_wallet_monthly_rollup_wallet');
+    PERFORM pg_temp.add_foreign_key('savings', 'child_id', 'users', 'fk_savings_child');
+    PERFORM pg_temp.add_foreign_key('rewards', 'created_by_user_id', 'users', 'fk_rewards_created_by');
+    PERFORM pg_temp.add_foreign_key('rewards', 'family_id', 'families', 'fk_rewards_family');
+    PERFORM pg_temp.add_foreign_key('redemptions', 'reward_id', 'rewards', 'fk_redemptions_reward');
+    PERFORM pg_temp.add_foreign_key('redemptions', 'child_id', 'users', 'fk_redemptions_child');
+    PERFORM pg_temp.add_foreign_key('redemptions', 'reviewed_by_user_id', 'users', 'fk_redemptions_reviewed_by');
+    PERFORM pg_temp.add_foreign_key('notifications', 'user_id', 'users', 'fk_notifications_user');
+    PERFORM pg_temp.add_foreign_key('user_badges', 'user_id', 'users', 'fk_user_badges_user');
+    PERFORM pg_temp.add_foreign_key('user_badges', 'badge_id', 'badges', 'fk_user_badges_badge');
+    PERFORM pg_temp.add_foreign_key('user_xp', 'user_id', 'users', 'fk_user_xp_user');
+END $$;
+
+-- ========================================
+-- 4. Valores permitidos dos enums (EnumType.STRING)
+-- Recriadas com os valores atuais: o ddl-auto não atualizava constraints existentes
+-- NOT VALID: as linhas existentes já passaram pela constraint anterior (sem varrer a tabela)
+-- ========================================
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_role_check,
+    ADD CONSTRAINT users_role_check CHECK (role IN ('PARENT', 'CHILD')) NOT VALID;
+
+ALTER TABLE tasks DROP CONSTRAINT IF EXISTS tasks_category_check,
+    ADD CONSTRAINT tasks_category_check
+        CHECK (category IN ('LIMPEZA', 'ORGANIZACAO', 'ESTUDOS', 'CUIDADOS', 'OUTRAS')) NOT VALID;
+ALTER TABLE tasks DROP CONSTRAINT IF EXISTS tasks_status_check,
+    ADD CONSTRAINT tasks_status_check CHECK (status IN ('ACTIVE', 'INACTIVE')) NOT VALID;
+ALTER TABLE tasks DROP CONSTRAINT IF EXISTS tasks_recurrence_type_check,
+    ADD CONSTRAINT tasks_recurrence_type_check CHECK (recurrence_type IN ('DAILY', 'WEEKLY')) NOT VALID;
+
+ALTER TABLE task_assignments DROP CONSTRAINT IF EXISTS task_assignments_status_check,
+    ADD CONSTRAINT task_assignments_status_check
+        CHECK (status IN ('PENDING', 'COMPLETED', 'APPROVED', 'REJECTED')) NOT VALID;
+ALTER TABLE task_assignments_archive DROP CONSTRAINT IF EXISTS task_assignments_archive_status_check,
+    ADD CONSTRAINT task_assignments_archive_status_check
+        CHECK (status IN ('PENDING', 'COMPLETED', 'APPROVED', 'REJECTED')) NOT VALID;
+
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS transactions_type_check,
+    ADD CONSTRAINT transactions_type_check CHECK (type IN ('CREDIT', 'DEBIT')) NOT VALID;
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS transactions_reference_type_check,
+    ADD CONSTRAINT transactions_reference_type_check
+        CHECK (reference_type IN ('TASK', 'REWARD', 'SAVINGS', 'ADJUSTMENT')) NOT VALID;
+
+ALTER TABLE wallet_holds DROP CONSTRAINT IF EXISTS wallet_holds_status_check,
+    ADD CONSTRAINT wallet_holds_status_check CHECK (status IN ('ACTIVE', 'SETTLED', 'RELEASED')) NOT VALID;
+ALTER TABLE wallet_holds DROP CONSTRAINT IF EXISTS wallet_holds_reference_type_check,
+    ADD CONSTRAINT wallet_holds_reference_type_check
+        CHECK (reference_type IN ('TASK', 'REWARD', 'SAVINGS', 'ADJUSTMENT')) NOT VALID;
+
+ALTER TABLE redemptions DROP CONSTRAINT IF EXISTS redemptions_status_check,
+    ADD CONSTRAINT redemptions_status_check CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED')) NOT VALID;
+
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_type_check,
+    ADD CONSTRAINT notifications_type_check
+        CHECK (type IN ('TASK_ASSIGNED', 'TASK_COMPLETED', 'TASK_APPROVED', 'TASK_REJECTED', 'LEVEL_UP',
+                        'BADGE_UNLOCKED', 'REDEMPTION_REQUESTED', 'REDEMPTION_APPROVED', 'REDEMPTION_REJECTED',
+                        'SAVINGS_DEPOSIT', 'SAVINGS_WITHDRAWAL', 'SAVINGS_INTEREST')) NOT VALID;
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_reference_type_check,
+    ADD CONSTRAINT notifications_reference_type_check
+        CHECK (reference_type IN ('TASK', 'REWARD', 'SAVINGS', 'ADJUSTMENT')) NOT VALID;
+
+ALTER TABLE badges DROP CONSTRAINT IF EXISTS badges_criteria_type_check,
+    ADD CONSTRAINT badges_criteria_type_check
+        CHECK (criteria_type IN ('TASK_COUNT', 'TOTAL_COINS_EARNED', 'CURRENT_BALANCE', 'STREAK_DAYS',
+                                 'TASKS_IN_ONE_DAY', 'REDEMPTION_COUNT', 'SAVINGS_AMOUNT', 'DAYS_SAVED')) NOT VALID;
+
+ALTER TABLE reconciliation_runs DROP CONSTRAINT IF EXISTS reconciliation_runs_status_check,
+    ADD CONSTRAINT reconciliation_runs_status_check
+        CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')) NOT VALID;
+ALTER TABLE reconciliation_discrepancies DROP CONSTRAINT IF EXISTS reconciliation_discrepancies_type_check,
+    ADD CONSTRAINT reconciliation_discrepancies_type_check
+        CHECK (type IN ('CHAIN_BREAK', 'AMOUNT_MISMATCH', 'BALANCE_MISMATCH', 'TOTAL_EARNED_MISMATCH',
+                        'TOTAL_SPENT_MISMATCH', 'HELD_MISMATCH')) NOT VALID;
+
+-- ========================================
+-- 5. Índices já declarados nas entidades (@Index)
+-- ========================================
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_family ON tasks (family_id);
+
+CREATE INDEX IF NOT EXISTS idx_task_assignments_child_created
+    ON task_assignments (assigned_to_child_id, created_at DESC, id);
+CREATE INDEX IF NOT EXISTS idx_task_assignments_child_status_created
+    ON task_assignments (assigned_to_child_id, status, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_task_assignments_child_status_approved
+    ON task_assignments (assigned_to_child_id, status, approved_at);
+CREATE INDEX IF NOT EXISTS idx_task_assignments_task_created
+    ON task_assignments (task_id, created_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_task_assignments_archive_child_status_approved
+    ON task_assignments_archive (assigned_to_child_id, status, approved_at);
+CREATE INDEX IF NOT EXISTS idx_task_assignments_archive_task
+    ON task_assignments_archive (task_id);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_wallet_created
+    ON transactions (wallet_id, created_at DESC, id);
+
+CREATE INDEX IF NOT EXISTS idx_wallet_holds_wallet_status ON wallet_holds (wallet_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_reconciliation_discrepancies_run ON reconciliation_discrepancies (run_id);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
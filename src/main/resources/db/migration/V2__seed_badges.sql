@@ -1,4 +1,6 @@
--- Seeds de Badges (8 badges)
+-- ========================================
+-- V2: Badges iniciais (antes em data.sql, executado a cada inicialização)
+-- ========================================
 -- Inserir apenas se a tabela estiver vazia
 
 INSERT INTO badges (id, name, description, icon_name, criteria_type, criteria_value, xp_bonus, created_at)
@@ -0,0 +1,64 @@
+-- ========================================
+-- V3: Índices das consultas dos repositórios
+-- ========================================
+-- CONCURRENTLY não bloqueia escritas; o Flyway executa esta migração fora de transação
+-- Parciais: cobrem só as linhas que a consulta filtra (o predicado do índice repete o da consulta)
+
+-- Notificações: listagem por usuário (mais recentes primeiro) e contador de não lidas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_unread
+    ON notifications (user_id)
+    WHERE is_read = false;
+
+-- Resgates: por criança (com status) e fila de pendentes dos pais
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_redemptions_child_status
+    ON redemptions (child_id, status);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_redemptions_pending
+    ON redemptions (requested_at)
+    WHERE status = 'PENDING';
+
+-- Recompensas da família (todas ou só as ativas)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_rewards_family_active
+    ON rewards (family_id, is_active);
+
+-- Poupanças com saldo (rendimento semanal)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_savings_with_balance
+    ON savings (child_id)
+    WHERE balance > 0;
+
+-- Membros da família por papel (crianças da família, validação de criança no lote)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_family_role
+    ON users (family_id, role);
+
+-- Tarefas recorrentes ativas (agendador diário)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_recurring
+    ON tasks (status, recurrence_end_date)
+    WHERE is_recurring = true;
+
+-- Assignment em aberto da mesma tarefa/criança no dia (agendador de recorrentes)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_assignments_open_task_child
+    ON task_assignments (task_id, assigned_to_child_id, created_at)
+    WHERE status IN ('PENDING', 'COMPLETED');
+
+-- Fila de aprovação dos pais (listagem com status=COMPLETED, na ordem do cursor)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_assignments_awaiting_approval
+    ON task_assignments (created_at DESC, id)
+    WHERE status = 'COMPLETED';
+
+-- Candidatas ao arquivamento (mesma expressão do corte em archiveBatch)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_assignments_archivable
+    ON task_assignments ((COALESCE(approved_at, created_at)))
+    WHERE status IN ('APPROVED', 'REJECTED');
+
+-- Reconciliação: última execução por status e divergências de uma execução em ordem
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reconciliation_runs_status_started
+    ON reconciliation_runs (status, started_at DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reconciliation_discrepancies_run_created
+    ON reconciliation_discrepancies (run_id, created_at);
+
+-- Substituído pelo índice acima (mesmo prefixo)
+DROP INDEX CONCURRENTLY IF EXISTS idx_reconciliation_discrepancies_run;
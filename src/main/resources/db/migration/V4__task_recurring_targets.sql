@@ -0,0 +1,25 @@
+-- ========================================
+-- V4: Crianças-alvo das tarefas recorrentes
+-- ========================================
+-- O agendador passa a ler os alvos desta tabela em vez de deduzi-los
+-- do histórico de assignments de cada tarefa
+
+CREATE TABLE IF NOT EXISTS task_recurring_targets (
+    task_id UUID NOT NULL REFERENCES tasks (id),
+    child_id UUID NOT NULL REFERENCES users (id),
+    PRIMARY KEY (task_id, child_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_task_recurring_targets_child ON task_recurring_targets (child_id);
+
+-- Tarefas recorrentes existentes: alvos = crianças que já receberam a tarefa (tabela quente + arquivo)
+INSERT INTO task_recurring_targets (task_id, child_id)
+SELECT DISTINCT history.task_id, history.child_id
+FROM (
+    SELECT task_id, assigned_to_child_id AS child_id FROM task_assignments
+    UNION
+    SELECT task_id, assigned_to_child_id FROM task_assignments_archive
+) history
+JOIN tasks t ON t.id = history.task_id AND t.is_recurring = true
+JOIN users u ON u.id = history.child_id
+ON CONFLICT DO NOTHING;
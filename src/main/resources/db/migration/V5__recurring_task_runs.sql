@@ -0,0 +1,20 @@
+-- ========================================
+-- V5: Resumo das execuções de tarefas recorrentes
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS recurring_task_runs (
+    id UUID PRIMARY KEY,
+    run_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    families BIGINT NOT NULL,
+    families_failed BIGINT NOT NULL,
+    assignments_created BIGINT NOT NULL,
+    retries BIGINT NOT NULL,
+    error VARCHAR(500),
+    started_at TIMESTAMP(6) NOT NULL,
+    finished_at TIMESTAMP(6),
+    CONSTRAINT recurring_task_runs_status_check
+        CHECK (status IN ('RUNNING', 'COMPLETED', 'PARTIAL', 'FAILED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_recurring_task_runs_started ON recurring_task_runs (started_at);
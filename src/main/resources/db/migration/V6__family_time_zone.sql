@@ -0,0 +1,14 @@
+-- ========================================
+-- V6: Fuso horário da família e controle dos jobs por família
+-- ========================================
+-- Tarefas recorrentes e rendimento semanal passam a rodar no dia local de cada família
+
+ALTER TABLE families ADD COLUMN IF NOT EXISTS time_zone VARCHAR(50) NOT NULL DEFAULT 'America/Sao_Paulo';
+ALTER TABLE families ADD COLUMN IF NOT EXISTS last_recurring_run_date DATE;
+ALTER TABLE families ADD COLUMN IF NOT EXISTS last_interest_run_date DATE;
+
+-- Os jobs da meia-noite do servidor já rodaram hoje (recorrentes) e no último domingo (rendimento)
+UPDATE families
+SET last_recurring_run_date = CURRENT_DATE,
+    last_interest_run_date = CURRENT_DATE - CAST(extract(isodow FROM CURRENT_DATE) AS int) % 7
+WHERE last_recurring_run_date IS NULL;
@@ -0,0 +1,13 @@
+-- ========================================
+-- V7: Lease dos registros de Idempotency-Key em andamento
+-- ========================================
+-- O dono renova o lease enquanto executa; só um lease vencido pode ser assumido por outra instância
+
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP(6);
+
+-- Registros existentes: mesmo prazo do critério anterior (120 s desde a criação)
+UPDATE idempotency_keys
+SET lease_expires_at = created_at + INTERVAL '120 seconds'
+WHERE lease_expires_at IS NULL;
+
+ALTER TABLE idempotency_keys ALTER COLUMN lease_expires_at SET NOT NULL;
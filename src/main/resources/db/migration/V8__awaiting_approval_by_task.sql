@@ -0,0 +1,12 @@
+-- ========================================
+-- V8: Fila de aprovação dos pais restrita à família
+-- ========================================
+-- task_assignments não tem family_id: a família chega via tasks (idx_tasks_family)
+-- O índice anterior (created_at DESC, id) percorria as COMPLETED de todas as famílias até achar as da família;
+-- com task_id na frente, cada tarefa da família lê só as próprias COMPLETED e a ordenação fica com poucas linhas
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_assignments_awaiting_approval_task
+    ON task_assignments (task_id, created_at DESC, id)
+    WHERE status = 'COMPLETED';
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_task_assignments_awaiting_approval;
@@ -0,0 +1,13 @@
+-- ========================================
+-- V9: Revogação de access tokens por usuário
+-- ========================================
+-- Tokens emitidos antes de revoked_before são recusados (usuário excluído ou com papel alterado)
+-- Sem FK para users: a revogação precisa sobreviver à exclusão do usuário
+-- Linhas mais antigas que a validade do access token não têm efeito e são removidas pela aplicação
+
+CREATE TABLE IF NOT EXISTS token_revocations (
+    user_id UUID PRIMARY KEY,
+    revoked_before TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_revocations_revoked_before ON token_revocations (revoked_before);
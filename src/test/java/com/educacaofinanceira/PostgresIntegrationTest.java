@@ -0,0 +1,116 @@
+package com.educacaofinanceira;
+
+import com.educacaofinanceira.dto.request.CreateChildRequest;
+import com.educacaofinanceira.dto.request.RegisterRequest;
+import com.educacaofinanceira.dto.response.UserResponse;
+import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import com.educacaofinanceira.service.AuthService;
+import com.educacaofinanceira.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base dos testes de integração: aplicação completa contra um PostgreSQL real (Testcontainers)
+ *
+ * - Um container para todas as classes (o contexto do Spring é reaproveitado entre elas)
+ * - Esquema criado pelas migrações do Flyway, como em produção
+ * - Ignorados quando não há Docker disponível
+ * - Cada teste cria a própria família: os testes não dependem de limpeza entre si
+ * - SQL enviado ao banco disponível via SqlCapture
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.com.educacaofinanceira=INFO",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import(SqlCapture.Config.class)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected AuthService authService;
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Cadastra um PARENT numa nova família
+     */
+    protected AuthenticatedUser registerParent() {
+        int n = SEQUENCE.incrementAndGet();
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("pai" + n + "-" + System.nanoTime() + "@teste.com");
+        request.setPassword("senha-segura");
+        request.setFullName("Pai " + n);
+        request.setFamilyName("Família " + n);
+
+        UserResponse user = authService.register(request).getUser();
+        return new AuthenticatedUser(user.getId(), user.getEmail(), UserRole.PARENT, user.getFamilyId());
+    }
+
+    /**
+     * Cria uma CHILD na família do pai (com carteira, XP e poupança)
+     */
+    protected AuthenticatedUser createChild(AuthenticatedUser parent) {
+        authenticate(parent);
+        CreateChildRequest request = new CreateChildRequest();
+        request.setFullName("Criança");
+        request.setUsername("c" + Long.toString(System.nanoTime(), 36) + SEQUENCE.incrementAndGet());
+        request.setAge(8);
+        request.setPin("1234");
+
+        UserResponse child = userService.createChild(request);
+        return new AuthenticatedUser(child.getId(), null, UserRole.CHILD, parent.getFamilyId());
+    }
+
+    protected void authenticate(AuthenticatedUser user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    /**
+     * Quantidade de statements JDBC preparados pelo Hibernate durante a ação
+     */
+    protected long countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,95 @@
+package com.educacaofinanceira;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Registra o SQL executado pela thread (com os valores dos parâmetros) enquanto a captura está ativa
+ *
+ * - O DataSource da aplicação é envolvido por um proxy (datasource-proxy) só nos testes
+ * - Fora de capture(...) nada é registrado
+ * - Lote JDBC: registra o primeiro conjunto de parâmetros
+ */
+public final class SqlCapture implements QueryExecutionListener {
+
+    private static final SqlCapture INSTANCE = new SqlCapture();
+    private static final ThreadLocal<List<CapturedQuery>> CAPTURED = new ThreadLocal<>();
+
+    private SqlCapture() {
+    }
+
+    /**
+     * Executa a ação e retorna os statements que ela enviou ao banco, na ordem
+     */
+    public static List<CapturedQuery> capture(Runnable action) {
+        List<CapturedQuery> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return captured;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<CapturedQuery> captured = CAPTURED.get();
+        if (captured == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            List<Object> parameters = queryInfo.getParametersList().isEmpty()
+                    ? List.of()
+                    : queryInfo.getParametersList().get(0).stream()
+                            .sorted(Comparator.comparingInt(op -> (Integer) op.getArgs()[0]))
+                            .map(SqlCapture::value)
+                            .toList();
+            captured.add(new CapturedQuery(queryInfo.getQuery(), parameters));
+        }
+    }
+
+    // setNull(i, tipo) registra o tipo como segundo argumento: o valor é null
+    private static Object value(ParameterSetOperation operation) {
+        return operation.getMethod().getName().equals("setNull") ? null : operation.getArgs()[1];
+    }
+
+    /**
+     * Statement enviado ao banco e os valores dos parâmetros (?), na ordem
+     */
+    public record CapturedQuery(String sql, List<Object> parameters) {
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        static BeanPostProcessor sqlCaptureDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource).listener(INSTANCE).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
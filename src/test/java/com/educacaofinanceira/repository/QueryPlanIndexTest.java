@@ -0,0 +1,274 @@
+package com.educacaofinanceira.repository;
+
+import com.educacaofinanceira.PostgresIntegrationTest;
+import com.educacaofinanceira.SqlCapture;
+import com.educacaofinanceira.SqlCapture.CapturedQuery;
+import com.educacaofinanceira.model.enums.AssignmentStatus;
+import com.educacaofinanceira.model.enums.RedemptionStatus;
+import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.repository.TaskAssignmentRepositoryCustom.TaskAssignmentFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plano das consultas quentes dos repositórios no esquema criado pelas migrações
+ *
+ * - Chama o método do repositório e captura o SQL que o Hibernate enviou (SqlCapture), com os parâmetros
+ * - EXPLAIN desse mesmo SQL com os mesmos valores: o plano é o que o banco usaria para a chamada
+ * - Volume carregado uma vez por classe (query-plan-seed.sql) e ANALYZE: a escolha entre índices segue as estatísticas
+ * - Exige um nó de índice (Index Scan, Index Only Scan ou Bitmap Index Scan) no índice esperado:
+ *   falha quando a migração remove o índice ou quando o método do repositório muda de forma e deixa de casar com ele
+ * - Páginas (keyset com LIMIT): exige Index Scan ordenado, sem Sort
+ * - Páginas após o cursor: exige também created_at no Index Cond (a leitura começa no cursor, não no início)
+ */
+@Sql(scripts = "/db/query-plan-seed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS,
+     config = @SqlConfig(encoding = "UTF-8"))
+class QueryPlanIndexTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TaskAssignmentRepository taskAssignmentRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private RedemptionRepository redemptionRepository;
+
+    @Autowired
+    private RewardRepository rewardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    // Família carregada pelo seed (com volume nas tabelas vizinhas)
+    private UUID familyId;
+    private UUID childId;
+    private UUID walletId;
+    private UUID taskId;
+    // Cursor no meio do histórico da carteira (21ª transação mais recente)
+    private LocalDateTime transactionCursorCreatedAt;
+    private UUID transactionCursorId;
+    // Cursor no meio da listagem de tarefas da criança (21ª assignment mais recente)
+    private LocalDateTime assignmentCursorCreatedAt;
+    private UUID assignmentCursorId;
+
+    @BeforeEach
+    void seededFamily() {
+        familyId = jdbcTemplate.queryForObject(
+                "SELECT id FROM families WHERE name = 'Família plano 1' LIMIT 1", UUID.class);
+        childId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE family_id = ? AND role = 'CHILD' ORDER BY id LIMIT 1",
+                UUID.class, familyId);
+        walletId = jdbcTemplate.queryForObject(
+                "SELECT id FROM wallets WHERE child_id = ?", UUID.class, childId);
+        taskId = jdbcTemplate.queryForObject(
+                "SELECT id FROM tasks WHERE family_id = ? ORDER BY id LIMIT 1", UUID.class, familyId);
+        jdbcTemplate.query("SELECT created_at, id FROM transactions WHERE wallet_id = ? " +
+                "ORDER BY created_at DESC, id ASC OFFSET 20 LIMIT 1", row -> {
+            transactionCursorCreatedAt = row.getTimestamp(1).toLocalDateTime();
+            transactionCursorId = row.getObject(2, UUID.class);
+        }, walletId);
+        jdbcTemplate.query("SELECT created_at, id FROM task_assignments WHERE assigned_to_child_id = ? " +
+                "ORDER BY created_at DESC, id ASC OFFSET 20 LIMIT 1", row -> {
+            assignmentCursorCreatedAt = row.getTimestamp(1).toLocalDateTime();
+            assignmentCursorId = row.getObject(2, UUID.class);
+        }, childId);
+    }
+
+    static Stream<Arguments> hotQueries() {
+        LocalDateTime from = LocalDateTime.now().minusDays(7);
+        LocalDateTime to = LocalDateTime.now();
+
+        return Stream.of(
+            // NotificationRepository
+            query("NotificationRepository.findByUserIdOrderByCreatedAtDesc", "idx_notifications_user_created",
+                    t -> t.notificationRepository.findByUserIdOrderByCreatedAtDesc(t.childId)),
+            query("NotificationRepository.countByUserIdAndIsRead", "idx_notifications_user_unread",
+                    t -> t.notificationRepository.countByUserIdAndIsRead(t.childId, false)),
+
+            // TransactionRepository
+            query("TransactionRepository.findByWalletIdOrderByCreatedAtDesc", "idx_transactions_wallet_created",
+                    t -> t.transactionRepository.findByWalletIdOrderByCreatedAtDesc(t.walletId)),
+            page("TransactionRepository.findFirstPage", "idx_transactions_wallet_created",
+                    t -> t.transactionRepository.findFirstPage(t.walletId, 21)),
+            pageAfter("TransactionRepository.findPageAfter", "idx_transactions_wallet_created",
+                    t -> t.transactionRepository.findPageAfter(
+                            t.walletId, t.transactionCursorCreatedAt, t.transactionCursorId, 21)),
+            query("TransactionRepository.streamForExport", "idx_transactions_wallet_created",
+                    t -> {
+                        try (Stream<?> rows = t.transactionRepository.streamForExport(t.walletId, from, to)) {
+                            rows.count();
+                        }
+                    }),
+            query("TransactionRepository.streamLedger", "idx_transactions_wallet_created",
+                    t -> {
+                        try (Stream<?> rows = t.transactionRepository.streamLedger(t.walletId)) {
+                            rows.count();
+                        }
+                    }),
+
+            // TaskAssignmentRepository
+            // Listagem da família: sem family_id em task_assignments, o índice é lido por tarefa da família
+            // e só as linhas da família são ordenadas (não há leitura ordenada global)
+            query("TaskAssignmentRepository.countByAssignedToChildIdAndStatusAndApprovedAtBetween",
+                    "idx_task_assignments_child_status_approved",
+                    t -> t.taskAssignmentRepository.countByAssignedToChildIdAndStatusAndApprovedAtBetween(
+                            t.childId, AssignmentStatus.APPROVED, from, to)),
+            query("TaskAssignmentRepository.findByAssignedToChildIdAndStatusAndApprovedAtBetween",
+                    "idx_task_assignments_child_status_approved",
+                    t -> t.taskAssignmentRepository.findByAssignedToChildIdAndStatusAndApprovedAtBetween(
+                            t.childId, AssignmentStatus.APPROVED, from, to)),
+            query("TaskAssignmentRepository.findByAssignedToChildIdAndStatusOrderByApprovedAtDesc",
+                    "idx_task_assignments_child_status_approved",
+                    t -> t.taskAssignmentRepository.findByAssignedToChildIdAndStatusOrderByApprovedAtDesc(
+                            t.childId, AssignmentStatus.APPROVED)),
+            query("TaskAssignmentRepository.findApprovedAtIncludingArchive",
+                    "idx_task_assignments_child_status_approved",
+                    t -> t.taskAssignmentRepository.findApprovedAtIncludingArchive(
+                            t.childId, AssignmentStatus.APPROVED, from, to)),
+            query("TaskAssignmentRepository.countByChildIdAndStatusIncludingArchive",
+                    "idx_task_assignments_child_status_(created|approved)",
+                    t -> t.taskAssignmentRepository.countByChildIdAndStatusIncludingArchive(
+                            t.childId, AssignmentStatus.APPROVED.name())),
+            query("TaskAssignmentRepository.maxApprovedInOneDayIncludingArchive",
+                    "idx_task_assignments_child_status_approved",
+                    t -> t.taskAssignmentRepository.maxApprovedInOneDayIncludingArchive(t.childId)),
+            query("TaskAssignmentRepository.findByTaskId", "idx_task_assignments_task_created",
+                    t -> t.taskAssignmentRepository.findByTaskId(t.taskId)),
+            page("TaskAssignmentRepository.findPage (criança)", "idx_task_assignments_child_created",
+                    t -> t.taskAssignmentRepository.findPage(
+                            TaskAssignmentFilter.builder().childId(t.childId).build(), 21)),
+            pageAfter("TaskAssignmentRepository.findPage (criança, após o cursor)", "idx_task_assignments_child_created",
+                    t -> t.taskAssignmentRepository.findPage(TaskAssignmentFilter.builder().childId(t.childId)
+                            .afterCreatedAt(t.assignmentCursorCreatedAt).afterId(t.assignmentCursorId).build(), 21)),
+            query("TaskAssignmentRepository.findPage (família)", "idx_task_assignments_task_created",
+                    t -> t.taskAssignmentRepository.findPage(
+                            TaskAssignmentFilter.builder().familyId(t.familyId).build(), 21)),
+            query("TaskAssignmentRepository.findPage (fila de aprovação da família)",
+                    "idx_task_assignments_awaiting_approval_task",
+                    t -> t.taskAssignmentRepository.findPage(TaskAssignmentFilter.builder()
+                            .familyId(t.familyId).status(AssignmentStatus.COMPLETED).build(), 21)),
+            query("TaskAssignmentRepository.findPage (família, após o cursor)", "idx_task_assignments_task_created",
+                    t -> t.taskAssignmentRepository.findPage(TaskAssignmentFilter.builder().familyId(t.familyId)
+                            .afterCreatedAt(t.assignmentCursorCreatedAt).afterId(t.assignmentCursorId).build(), 21)),
+            // Listagem sem limite: qualquer índice iniciado por assigned_to_child_id (a ordenação é sobre todas as linhas)
+            query("TaskAssignmentRepository.findAllMatching (criança)", "idx_task_assignments_child_[a-z_]+",
+                    t -> t.taskAssignmentRepository.findAllMatching(
+                            TaskAssignmentFilter.builder().childId(t.childId).build())),
+            query("TaskAssignmentRepository.createRecurringAssignments",
+                    "idx_task_assignments_(open_task_child|child_status_created)",
+                    t -> t.taskAssignmentRepository.createRecurringAssignments(t.familyId, LocalDate.now(), "MON",
+                            LocalDate.now().atStartOfDay(), LocalDate.now().plusDays(1).atStartOfDay(),
+                            LocalDateTime.now())),
+
+            // RedemptionRepository
+            query("RedemptionRepository.findByStatus (PENDING)", "idx_redemptions_pending",
+                    t -> t.redemptionRepository.findByStatus(RedemptionStatus.PENDING)),
+            query("RedemptionRepository.findByChildId", "idx_redemptions_child_status",
+                    t -> t.redemptionRepository.findByChildId(t.childId)),
+            query("RedemptionRepository.countByChildIdAndStatus", "idx_redemptions_child_status",
+                    t -> t.redemptionRepository.countByChildIdAndStatus(t.childId, RedemptionStatus.APPROVED)),
+
+            // Família: recompensas, membros, tarefas e carteira
+            query("RewardRepository.findByFamilyIdAndIsActive", "idx_rewards_family_active",
+                    t -> t.rewardRepository.findByFamilyIdAndIsActive(t.familyId, true)),
+            query("UserRepository.findByFamilyIdAndRole", "idx_users_family_role",
+                    t -> t.userRepository.findByFamilyIdAndRole(t.familyId, UserRole.CHILD)),
+            query("TaskRepository.findByFamilyId", "idx_tasks_family",
+                    t -> t.taskRepository.findByFamilyId(t.familyId)),
+            query("WalletRepository.findByChildId", "wallets_child_id_key",
+                    t -> t.walletRepository.findByChildId(t.childId))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void repositoryQueryUsesIndex(String repositoryMethod, String index, Access access,
+                                  Consumer<QueryPlanIndexTest> call) {
+        // Primeiro statement da chamada é a consulta do método (os seguintes seriam carregamentos de associações)
+        // Transação desfeita ao final: métodos @Modifying não alteram o seed
+        List<CapturedQuery> queries = SqlCapture.capture(() -> transactionTemplate.executeWithoutResult(status -> {
+            call.accept(this);
+            status.setRollbackOnly();
+        }));
+        assertThat(queries).as(repositoryMethod).isNotEmpty();
+
+        CapturedQuery query = queries.get(0);
+        String plan = explain(query);
+
+        assertThat(plan).as(query.sql() + "\n" + plan)
+                .containsPattern("(Index (Only )?Scan (Backward )?using|Bitmap Index Scan on) " + index + " ");
+        if (access != Access.INDEX) {
+            // Keyset: a ordem vem do próprio índice (sem Sort) e o LIMIT interrompe a leitura
+            assertThat(plan).as(query.sql() + "\n" + plan)
+                    .containsPattern("Index (Only )?Scan (Backward )?using " + index + " ")
+                    .doesNotContain("Sort Key");
+        }
+        if (access == Access.SEEK) {
+            // Cursor como limite do índice: sem ele o índice seria lido desde a linha mais recente
+            assertThat(plan).as(query.sql() + "\n" + plan)
+                    .containsPattern("Index Cond: .*created_at <= ");
+        }
+    }
+
+    private enum Access {
+        INDEX,
+        ORDERED,
+        SEEK
+    }
+
+    private static Arguments query(String repositoryMethod, String index, Consumer<QueryPlanIndexTest> call) {
+        return Arguments.of(repositoryMethod, index, Access.INDEX, call);
+    }
+
+    // Página com LIMIT: exige a leitura ordenada do índice
+    private static Arguments page(String repositoryMethod, String index, Consumer<QueryPlanIndexTest> call) {
+        return Arguments.of(repositoryMethod, index, Access.ORDERED, call);
+    }
+
+    // Página após o cursor: leitura ordenada que começa no cursor
+    private static Arguments pageAfter(String repositoryMethod, String index, Consumer<QueryPlanIndexTest> call) {
+        return Arguments.of(repositoryMethod, index, Access.SEEK, call);
+    }
+
+    // EXPLAIN do statement capturado com os mesmos parâmetros (plano da execução com esses valores)
+    private String explain(CapturedQuery query) {
+        List<String> lines = jdbcTemplate.query("EXPLAIN " + query.sql(), statement -> {
+            for (int i = 0; i < query.parameters().size(); i++) {
+                statement.setObject(i + 1, query.parameters().get(i));
+            }
+        }, (row, n) -> row.getString(1));
+        return String.join("\n", lines);
+    }
+}
@@ -0,0 +1,120 @@
+package com.educacaofinanceira.security;
+
+import com.educacaofinanceira.model.Family;
+import com.educacaofinanceira.model.User;
+import com.educacaofinanceira.model.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por requisição da autenticação do token JWT
+ *
+ * - legacyParseTwice: caminho anterior (chave e parser recriados a cada chamada, validateToken + getUserIdFromToken)
+ * - parseOnce: um único parse com chave e parser criados na inicialização (token ainda fora do cache)
+ * - cachedAuthenticate: token repetido, atendido pelo cache de tokens verificados (SHA-256 + lookup + revogação)
+ *
+ * Não roda no mvn test; executar após test-compile:
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *   com.educacaofinanceira.security.JwtTokenProviderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-com-pelo-menos-64-bytes-para-assinar-tokens-hs512-0123456789";
+
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        // Revogação só consultada em memória (nenhuma revogação registrada): repositório não é usado
+        provider = new JwtTokenProvider(new TokenRevocationRegistry(null, TimeUnit.HOURS.toMillis(1)));
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(provider, "verifiedTokenCacheSize", 10000);
+        provider.init();
+
+        Family family = new Family();
+        family.setId(UUID.randomUUID());
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("pai@teste.com");
+        user.setRole(UserRole.PARENT);
+        user.setFamily(family);
+        token = provider.generateToken(user);
+
+        // Aquece o cache: cachedAuthenticate mede só o acerto
+        provider.authenticate(token);
+    }
+
+    @Benchmark
+    public Optional<UUID> legacyParseTwice() {
+        if (!legacyValidateToken(token)) {
+            return Optional.empty();
+        }
+        return Optional.of(UUID.fromString(legacyClaims(token).getSubject()));
+    }
+
+    @Benchmark
+    public Optional<Claims> parseOnce() {
+        return provider.parseClaims(token);
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> cachedAuthenticate() {
+        return provider.authenticate(token);
+    }
+
+    // Caminho anterior: chave HMAC e parser construídos a cada chamada
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static boolean legacyValidateToken(String token) {
+        try {
+            legacyClaims(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.educacaofinanceira.security;
+
+import com.educacaofinanceira.PostgresIntegrationTest;
+import com.educacaofinanceira.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Access token de usuário excluído deixa de autenticar, mesmo já estando no cache de tokens verificados
+ */
+class TokenRevocationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletedChildTokenIsRejected() {
+        AuthenticatedUser parent = registerParent();
+        AuthenticatedUser child = createChild(parent);
+        String childToken = token(child.getId());
+        String parentToken = token(parent.getId());
+        assertThat(jwtTokenProvider.authenticate(childToken)).isPresent(); // Fica no cache
+
+        authenticate(parent);
+        userService.deleteChild(child.getId());
+
+        assertThat(jwtTokenProvider.authenticate(childToken)).isEmpty();
+        assertThat(jwtTokenProvider.authenticate(parentToken)).isPresent();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM token_revocations WHERE user_id = ?", Integer.class, child.getId()))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void revocationFromAnotherInstanceAppliesAfterRefresh() {
+        AuthenticatedUser parent = registerParent();
+        String parentToken = token(parent.getId());
+        assertThat(jwtTokenProvider.authenticate(parentToken)).isPresent();
+
+        // Outra instância gravou a revogação direto no banco
+        jdbcTemplate.update("INSERT INTO token_revocations (user_id, revoked_before) VALUES (?, now() + INTERVAL '1 second')",
+                parent.getId());
+        tokenRevocationRegistry.refresh();
+
+        assertThat(jwtTokenProvider.authenticate(parentToken)).isEmpty();
+    }
+
+    private String token(UUID userId) {
+        return jwtTokenProvider.generateToken(userRepository.findByIdWithFamily(userId).orElseThrow());
+    }
+}
@@ -0,0 +1,208 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.PostgresIntegrationTest;
+import com.educacaofinanceira.model.enums.UserRole;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vazão de TaskService.approveTask com vários pais aprovando tarefas da mesma criança, em cada wallet.concurrency-mode
+ *
+ * - Caminho completo da aprovação: assignment, crédito na carteira, XP/badges e notificação
+ * - Todas as aprovações disputam a mesma carteira; cada modo roda no próprio contexto (propriedades da classe aninhada)
+ * - Rodada de aquecimento descartada; depois mede ops/s (aprovações concluídas / tempo total) e latência p50/p99/máx
+ * - Aprovação que falha (ex.: 503 do modo otimista com tentativas esgotadas) é contada, não repetida
+ * - Ao final, carteira e ledger batem com as aprovações concluídas
+ *
+ * Não roda no mvn test (nome fora do padrão do Surefire); executar com:
+ * mvn test -Dtest=TaskApprovalContentionBenchmark
+ */
+class TaskApprovalContentionBenchmark {
+
+    @Nested
+    @TestPropertySource(properties = "wallet.concurrency-mode=pessimistic")
+    class Pessimistic extends Contention {
+
+        @Test
+        void concurrentApprovalsForSameChild() throws Exception {
+            run("pessimistic");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "wallet.concurrency-mode=optimistic")
+    class Optimistic extends Contention {
+
+        @Test
+        void concurrentApprovalsForSameChild() throws Exception {
+            run("optimistic");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "wallet.concurrency-mode=atomic")
+    class Atomic extends Contention {
+
+        @Test
+        void concurrentApprovalsForSameChild() throws Exception {
+            run("atomic");
+        }
+    }
+
+    @Slf4j
+    abstract static class Contention extends PostgresIntegrationTest {
+
+        private static final int PARENTS = 8;
+        private static final int WARMUP_PER_PARENT = 10;
+        private static final int APPROVALS_PER_PARENT = 50;
+        private static final int COIN_VALUE = 10;
+
+        @Autowired
+        private TaskService taskService;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        void run(String mode) throws Exception {
+            AuthenticatedUser firstParent = registerParent();
+            AuthenticatedUser child = createChild(firstParent);
+            List<AuthenticatedUser> parents = familyParents(firstParent);
+
+            round(parents, child, WARMUP_PER_PARENT);
+
+            double conflictsBefore = counter("kidscoin.wallet.optimistic.conflicts");
+            Result result = round(parents, child, APPROVALS_PER_PARENT);
+            double conflicts = counter("kidscoin.wallet.optimistic.conflicts") - conflictsBefore;
+
+            long[] latencies = result.latenciesNanos();
+            Arrays.sort(latencies);
+            log.info("approveTask [{}] {} pais, {} aprovações: {} ops/s, p50 {} ms, p99 {} ms, máx {} ms, " +
+                            "falhas {}, conflitos otimistas {}",
+                    mode, PARENTS, latencies.length,
+                    String.format("%.1f", result.succeeded() / (result.elapsedNanos() / 1e9)),
+                    millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)),
+                    millis(latencies[latencies.length - 1]), result.failed(), (long) conflicts);
+
+            // Cada aprovação concluída credita a carteira uma vez; as que falharam foram desfeitas por inteiro
+            int approved = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM task_assignments WHERE assigned_to_child_id = ? AND status = 'APPROVED'",
+                    Integer.class, child.getId());
+            assertThat(approved).isPositive();
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT balance FROM wallets WHERE child_id = ?", Integer.class, child.getId()))
+                    .isEqualTo(approved * COIN_VALUE);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM transactions t JOIN wallets w ON w.id = t.wallet_id WHERE w.child_id = ?",
+                    Integer.class, child.getId()))
+                    .isEqualTo(approved);
+        }
+
+        /**
+         * Cada pai aprova a sua parte das assignments concluídas, todos ao mesmo tempo
+         */
+        private Result round(List<AuthenticatedUser> parents, AuthenticatedUser child, int perParent)
+                throws Exception {
+            List<UUID> assignments = completedAssignments(parents.get(0), child, parents.size() * perParent);
+            long[] latencies = new long[assignments.size()];
+            AtomicInteger failed = new AtomicInteger();
+
+            CyclicBarrier start = new CyclicBarrier(parents.size() + 1);
+            ExecutorService executor = Executors.newFixedThreadPool(parents.size());
+            List<Future<?>> futures = new ArrayList<>();
+            long elapsed;
+            try {
+                for (int p = 0; p < parents.size(); p++) {
+                    AuthenticatedUser parent = parents.get(p);
+                    int offset = p * perParent;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = offset; i < offset + perParent; i++) {
+                            long begin = System.nanoTime();
+                            try {
+                                taskService.approveTask(assignments.get(i), parent);
+                            } catch (RuntimeException e) {
+                                failed.incrementAndGet();
+                            }
+                            latencies[i] = System.nanoTime() - begin;
+                        }
+                        return null;
+                    }));
+                }
+                start.await();
+                long begin = System.nanoTime();
+                for (Future<?> future : futures) {
+                    future.get(5, TimeUnit.MINUTES);
+                }
+                elapsed = System.nanoTime() - begin;
+            } finally {
+                executor.shutdownNow();
+            }
+            return new Result(latencies, assignments.size() - failed.get(), failed.get(), elapsed);
+        }
+
+        // O cadastro cria um pai por família: os demais entram direto na família do primeiro
+        private List<AuthenticatedUser> familyParents(AuthenticatedUser firstParent) {
+            List<AuthenticatedUser> parents = new ArrayList<>(List.of(firstParent));
+            for (int p = 1; p < PARENTS; p++) {
+                UUID id = UUID.randomUUID();
+                jdbcTemplate.update("INSERT INTO users (id, password, full_name, role, family_id, created_at, updated_at) " +
+                        "VALUES (?, 'x', 'Pai extra', 'PARENT', ?, now(), now())", id, firstParent.getFamilyId());
+                parents.add(new AuthenticatedUser(id, null, UserRole.PARENT, firstParent.getFamilyId()));
+            }
+            return parents;
+        }
+
+        // Uma tarefa e as assignments já concluídas pela criança (prontas para aprovação)
+        private List<UUID> completedAssignments(AuthenticatedUser parent, AuthenticatedUser child, int count) {
+            UUID taskId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO tasks (id, title, coin_value, xp_value, category, created_by_user_id, " +
+                            "family_id, status, is_recurring, created_at, updated_at) " +
+                            "VALUES (?, 'Tarefa disputada', ?, 5, 'LIMPEZA', ?, ?, 'ACTIVE', false, now(), now())",
+                    taskId, COIN_VALUE, parent.getId(), parent.getFamilyId());
+            return jdbcTemplate.queryForList("INSERT INTO task_assignments (id, task_id, assigned_to_child_id, " +
+                            "status, completed_at, created_at) " +
+                            "SELECT gen_random_uuid(), ?, ?, 'COMPLETED', now(), now() FROM generate_series(1, ?) " +
+                            "RETURNING id",
+                    UUID.class, taskId, child.getId(), count);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+        }
+
+        private static String millis(long nanos) {
+            return String.format("%.2f", nanos / 1e6);
+        }
+
+        private double counter(String name) {
+            Counter counter = meterRegistry.find(name).counter();
+            return counter == null ? 0 : counter.count();
+        }
+
+        private record Result(long[] latenciesNanos, int succeeded, int failed, long elapsedNanos) {
+        }
+    }
+}
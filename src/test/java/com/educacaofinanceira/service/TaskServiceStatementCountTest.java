@@ -0,0 +1,148 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.PostgresIntegrationTest;
+import com.educacaofinanceira.dto.request.CreateTaskRequest;
+import com.educacaofinanceira.dto.response.TaskApprovalResult;
+import com.educacaofinanceira.dto.response.TaskResponse;
+import com.educacaofinanceira.model.TaskAssignment;
+import com.educacaofinanceira.model.UserBadge;
+import com.educacaofinanceira.model.UserXP;
+import com.educacaofinanceira.model.enums.TaskCategory;
+import com.educacaofinanceira.repository.BadgeRepository;
+import com.educacaofinanceira.repository.TaskAssignmentRepository;
+import com.educacaofinanceira.repository.TaskAssignmentRepositoryCustom.TaskAssignmentFilter;
+import com.educacaofinanceira.repository.UserBadgeRepository;
+import com.educacaofinanceira.repository.UserRepository;
+import com.educacaofinanceira.repository.UserXPRepository;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Quantidade de statements das operações em lote não cresce com o tamanho do lote
+ * (tamanhos abaixo de hibernate.jdbc.batch_size: cada lote JDBC conta como um statement)
+ */
+class TaskServiceStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int SMALL = 2;
+    private static final int LARGE = 20;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private GamificationService gamificationService;
+
+    @Autowired
+    private TaskAssignmentRepository taskAssignmentRepository;
+
+    @Autowired
+    private BadgeRepository badgeRepository;
+
+    @Autowired
+    private UserBadgeRepository userBadgeRepository;
+
+    @Autowired
+    private UserXPRepository userXPRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void createTasksUsesSameStatementCountForAnyBatchSize() {
+        AuthenticatedUser parent = registerParent();
+        List<UUID> children = List.of(createChild(parent).getId(), createChild(parent).getId());
+        taskService.createTasks(requests(1, children), parent); // Aquecimento (caches, primeira consulta)
+
+        long small = countStatements(() -> taskService.createTasks(requests(SMALL, children), parent));
+        long large = countStatements(() -> taskService.createTasks(requests(LARGE, children), parent));
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void approveTasksUsesSameStatementCountForAnyBatchSize() {
+        AuthenticatedUser parent = registerParent();
+        AuthenticatedUser child = createChild(parent);
+        maxOutGamification(child.getId());
+        List<UUID> warmup = completedAssignments(parent, child, 1);
+        List<UUID> smallBatch = completedAssignments(parent, child, SMALL);
+        List<UUID> largeBatch = completedAssignments(parent, child, LARGE);
+        taskService.approveTasks(warmup, parent);
+
+        List<TaskApprovalResult> results = new ArrayList<>();
+        long small = countStatements(() -> results.addAll(taskService.approveTasks(smallBatch, parent)));
+        long large = countStatements(() -> results.addAll(taskService.approveTasks(largeBatch, parent)));
+
+        assertThat(results).hasSize(SMALL + LARGE)
+                .allMatch(result -> result.getOutcome() == TaskApprovalResult.Outcome.APPROVED);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void getTasksUsesSameStatementCountForAnyFamilySize() {
+        AuthenticatedUser smallParent = registerParent();
+        AuthenticatedUser largeParent = registerParent();
+        taskService.createTasks(requests(SMALL, List.of(createChild(smallParent).getId())), smallParent);
+        taskService.createTasks(requests(LARGE, List.of(createChild(largeParent).getId())), largeParent);
+        TaskAssignmentFilter filter = TaskAssignmentFilter.builder().build();
+        taskService.getTasks(smallParent, filter, 50, null); // Aquecimento
+
+        long small = countStatements(() -> assertThat(taskService.getTasks(smallParent, filter, 50, null)
+                .getItems()).hasSize(SMALL));
+        long large = countStatements(() -> assertThat(taskService.getTasks(largeParent, filter, 50, null)
+                .getItems()).hasSize(LARGE));
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    // Nível máximo e todas as badges: subir de nível ou desbloquear badge depende dos limites cruzados,
+    // não do tamanho do lote, e mudaria a contagem entre as medições
+    private void maxOutGamification(UUID childId) {
+        UserXP userXP = userXPRepository.findByUserId(childId).orElseThrow();
+        userXP.setCurrentLevel(10);
+        userXP.setTotalXp(gamificationService.calculateXPForLevel(10));
+        userXP.setCurrentXp(0);
+        userXPRepository.save(userXP);
+
+        badgeRepository.findAll().forEach(badge -> {
+            UserBadge userBadge = new UserBadge();
+            userBadge.setUser(userRepository.findById(childId).orElseThrow());
+            userBadge.setBadge(badge);
+            userBadgeRepository.save(userBadge);
+        });
+    }
+
+    // Cria as tarefas e a criança as conclui (prontas para aprovação)
+    private List<UUID> completedAssignments(AuthenticatedUser parent, AuthenticatedUser child, int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (TaskResponse task : taskService.createTasks(requests(count, List.of(child.getId())), parent)) {
+            for (TaskAssignment assignment : taskAssignmentRepository.findByTaskId(task.getId())) {
+                taskService.completeTask(assignment.getId(), child);
+                ids.add(assignment.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static List<CreateTaskRequest> requests(int count, List<UUID> children) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    CreateTaskRequest request = new CreateTaskRequest();
+                    request.setTitle("Tarefa " + i);
+                    request.setCoinValue(10);
+                    request.setXpValue(5);
+                    request.setCategory(TaskCategory.LIMPEZA);
+                    request.setChildrenIds(children);
+                    return request;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,149 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.PostgresIntegrationTest;
+import com.educacaofinanceira.model.enums.ReferenceType;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Créditos e débitos simultâneos na mesma carteira, em cada wallet.concurrency-mode
+ *
+ * - Saldo final = inicial + créditos - débitos (nenhuma atualização perdida)
+ * - Uma Transaction por movimentação, e o ledger soma o saldo da carteira
+ * - Retentativas: só o modo otimista retenta (conflitos > 0 sob disputa, nenhuma esgotada)
+ */
+class WalletConcurrencyTest {
+
+    @Nested
+    @TestPropertySource(properties = "wallet.concurrency-mode=pessimistic")
+    class Pessimistic extends Contention {
+
+        @Test
+        void concurrentCreditsAndDebitsKeepBalance() throws Exception {
+            assertThat(runContention()).isZero();
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "wallet.concurrency-mode=optimistic",
+            // Sem 503 no teste: a disputa aqui é maior que a de uma carteira real
+            "wallet.optimistic.max-attempts=100",
+            "wallet.optimistic.backoff-millis=1"
+    })
+    class Optimistic extends Contention {
+
+        @Test
+        void concurrentCreditsAndDebitsKeepBalance() throws Exception {
+            double exhaustedBefore = counter("kidscoin.wallet.optimistic.exhausted");
+
+            assertThat(runContention()).isPositive();
+            assertThat(counter("kidscoin.wallet.optimistic.exhausted")).isEqualTo(exhaustedBefore);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "wallet.concurrency-mode=atomic")
+    class Atomic extends Contention {
+
+        @Test
+        void concurrentCreditsAndDebitsKeepBalance() throws Exception {
+            assertThat(runContention()).isZero();
+        }
+    }
+
+    /**
+     * Cenário comum; cada modo roda no próprio contexto (propriedades da classe aninhada)
+     */
+    abstract static class Contention extends PostgresIntegrationTest {
+
+        private static final int THREADS = 8;
+        private static final int OPERATIONS_PER_THREAD = 25;
+        private static final int INITIAL_BALANCE = 1000;
+        private static final int CREDIT = 5;
+        private static final int DEBIT = 3;
+
+        @Autowired
+        private WalletService walletService;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Dispara as movimentações ao mesmo tempo, confere saldo e ledger e retorna os conflitos (retentativas)
+         */
+        double runContention() throws Exception {
+            AuthenticatedUser child = createChild(registerParent());
+            walletService.credit(child.getId(), INITIAL_BALANCE, "Saldo inicial", ReferenceType.ADJUSTMENT, null);
+            double conflictsBefore = counter("kidscoin.wallet.optimistic.conflicts");
+
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                            if (i % 2 == 0) {
+                                walletService.credit(child.getId(), CREDIT, "Crédito", ReferenceType.ADJUSTMENT, null);
+                            } else {
+                                walletService.debit(child.getId(), DEBIT, "Débito", ReferenceType.ADJUSTMENT, null);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(2, TimeUnit.MINUTES);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            int credits = THREADS * ((OPERATIONS_PER_THREAD + 1) / 2);
+            int debits = THREADS * (OPERATIONS_PER_THREAD / 2);
+            int expectedBalance = INITIAL_BALANCE + credits * CREDIT - debits * DEBIT;
+
+            UUID walletId = jdbcTemplate.queryForObject(
+                    "SELECT id FROM wallets WHERE child_id = ?", UUID.class, child.getId());
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT balance FROM wallets WHERE id = ?", Integer.class, walletId))
+                    .isEqualTo(expectedBalance);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM transactions WHERE wallet_id = ?", Integer.class, walletId))
+                    .isEqualTo(1 + credits + debits);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT sum(CASE WHEN type = 'CREDIT' THEN amount ELSE -amount END) FROM transactions " +
+                    "WHERE wallet_id = ?", Integer.class, walletId))
+                    .isEqualTo(expectedBalance);
+
+            return counter("kidscoin.wallet.optimistic.conflicts") - conflictsBefore;
+        }
+
+        double counter(String name) {
+            Counter counter = meterRegistry.find(name).counter();
+            return counter == null ? 0 : counter.count();
+        }
+    }
+}
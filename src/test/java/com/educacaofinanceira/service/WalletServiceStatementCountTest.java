@@ -0,0 +1,103 @@
+package com.educacaofinanceira.service;
+
+import com.educacaofinanceira.PostgresIntegrationTest;
+import com.educacaofinanceira.model.enums.ReferenceType;
+import com.educacaofinanceira.security.AuthenticatedUser;
+import com.educacaofinanceira.service.WalletService.LedgerEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Quantidade de statements de creditBatch/debitBatch comparada a chamadas avulsas de credit/debit
+ *
+ * - Avulsas: cada chamada faz lock, UPDATE da carteira, INSERT da transação e upsert do resumo mensal
+ * - Lote: um lock para todas as carteiras, INSERTs e UPDATEs em lote JDBC e
+ *   um upsert do resumo por (carteira, mês, tipo de referência)
+ */
+class WalletServiceStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int SMALL = 2;
+    private static final int LARGE = 20;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    void creditBatchUsesSameStatementCountForAnyBatchSize() {
+        UUID child = createChild(registerParent()).getId();
+        walletService.credit(child, 1, "Aquecimento", ReferenceType.ADJUSTMENT, null);
+        walletService.creditBatch(entries(List.of(child), 1, ReferenceType.ADJUSTMENT));
+
+        long single = countStatements(() -> credit(child, 1));
+        long singles = countStatements(() -> credit(child, LARGE));
+        long small = countStatements(() -> walletService.creditBatch(entries(List.of(child), SMALL,
+                ReferenceType.ADJUSTMENT)));
+        long large = countStatements(() -> walletService.creditBatch(entries(List.of(child), LARGE,
+                ReferenceType.ADJUSTMENT)));
+
+        assertThat(singles).isEqualTo(LARGE * single);
+        assertThat(large).isEqualTo(small).isEqualTo(single);
+    }
+
+    @Test
+    void debitBatchUsesSameStatementCountForAnyBatchSize() {
+        UUID child = createChild(registerParent()).getId();
+        walletService.credit(child, 1000, "Saldo inicial", ReferenceType.ADJUSTMENT, null);
+        walletService.debitBatch(entries(List.of(child), 1, ReferenceType.ADJUSTMENT)); // Aquecimento
+
+        long single = countStatements(() -> debit(child, 1));
+        long singles = countStatements(() -> debit(child, LARGE));
+        long small = countStatements(() -> walletService.debitBatch(entries(List.of(child), SMALL,
+                ReferenceType.ADJUSTMENT)));
+        long large = countStatements(() -> walletService.debitBatch(entries(List.of(child), LARGE,
+                ReferenceType.ADJUSTMENT)));
+
+        assertThat(singles).isEqualTo(LARGE * single);
+        assertThat(large).isEqualTo(small).isEqualTo(single);
+    }
+
+    @Test
+    void creditBatchAddsOneRollupUpsertPerWalletAndReferenceType() {
+        AuthenticatedUser parent = registerParent();
+        List<UUID> children = List.of(createChild(parent).getId(), createChild(parent).getId(),
+                createChild(parent).getId());
+        walletService.creditBatch(entries(children, 1, ReferenceType.ADJUSTMENT)); // Aquecimento
+
+        // 1 grupo (carteira, mês, tipo) x 6 grupos (3 carteiras x 2 tipos), com o mesmo número de entradas
+        long oneGroup = countStatements(() -> walletService.creditBatch(entries(children.subList(0, 1),
+                3 * LARGE, ReferenceType.ADJUSTMENT)));
+        List<LedgerEntry> mixed = new ArrayList<>(entries(children, LARGE / 2, ReferenceType.ADJUSTMENT));
+        mixed.addAll(entries(children, LARGE / 2, ReferenceType.TASK));
+        long sixGroups = countStatements(() -> walletService.creditBatch(mixed));
+
+        assertThat(sixGroups - oneGroup).isEqualTo(5);
+    }
+
+    private void credit(UUID childId, int times) {
+        for (int i = 0; i < times; i++) {
+            walletService.credit(childId, 1, "Crédito", ReferenceType.ADJUSTMENT, null);
+        }
+    }
+
+    private void debit(UUID childId, int times) {
+        for (int i = 0; i < times; i++) {
+            walletService.debit(childId, 1, "Débito", ReferenceType.ADJUSTMENT, null);
+        }
+    }
+
+    private List<LedgerEntry> entries(List<UUID> childIds, int perChild, ReferenceType referenceType) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (UUID childId : childIds) {
+            for (int i = 0; i < perChild; i++) {
+                entries.add(new LedgerEntry(childId, 1, "Lançamento " + i, referenceType, null));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,87 @@
+-- Volume representativo para o QueryPlanIndexTest (famílias próprias, isoladas das dos outros testes)
+-- 200 famílias, 600 crianças, 2.000 tarefas, 50.000 assignments, 45.000 transações, 20.000 notificações
+-- Com estatísticas reais o planner escolhe entre os índices pelo custo, e não por empate entre tabelas vazias
+
+CREATE TEMP TABLE seed_families ON COMMIT DROP AS
+SELECT gen_random_uuid() AS id, n FROM generate_series(1, 200) n;
+
+INSERT INTO families (id, name, created_at)
+SELECT id, 'Família plano ' || n, now() - INTERVAL '1 year' FROM seed_families;
+
+CREATE TEMP TABLE seed_users ON COMMIT DROP AS
+SELECT gen_random_uuid() AS id, f.id AS family_id, u AS n, CASE WHEN u = 0 THEN 'PARENT' ELSE 'CHILD' END AS role
+FROM seed_families f CROSS JOIN generate_series(0, 3) u;
+
+INSERT INTO users (id, password, full_name, role, family_id, created_at, updated_at)
+SELECT id, 'x', 'Usuário plano', role, family_id, now(), now() FROM seed_users;
+
+CREATE TEMP TABLE seed_tasks ON COMMIT DROP AS
+SELECT gen_random_uuid() AS id, p.family_id, p.id AS parent_id, t AS n
+FROM seed_users p CROSS JOIN generate_series(1, 10) t
+WHERE p.role = 'PARENT';
+
+INSERT INTO tasks (id, title, coin_value, xp_value, category, created_by_user_id, family_id, status,
+                   is_recurring, recurrence_type, created_at, updated_at)
+SELECT id, 'Tarefa plano', 10, 5, 'LIMPEZA', parent_id, family_id, 'ACTIVE',
+       n <= 3, CASE WHEN n <= 3 THEN 'DAILY' END, now(), now()
+FROM seed_tasks;
+
+INSERT INTO task_recurring_targets (task_id, child_id)
+SELECT t.id, c.id
+FROM seed_tasks t JOIN seed_users c ON c.family_id = t.family_id AND c.role = 'CHILD'
+WHERE t.n <= 3;
+
+INSERT INTO task_assignments (id, task_id, assigned_to_child_id, status, completed_at, approved_at,
+                              approved_by_user_id, created_at)
+SELECT gen_random_uuid(), t.id, c.id,
+       CASE WHEN a % 10 < 7 THEN 'APPROVED' WHEN a % 10 = 7 THEN 'REJECTED'
+            WHEN a % 10 = 8 THEN 'PENDING' ELSE 'COMPLETED' END,
+       CASE WHEN a % 10 <> 8 THEN now() - a * INTERVAL '1 hour' END,
+       CASE WHEN a % 10 < 7 THEN now() - a * INTERVAL '1 hour' END,
+       CASE WHEN a % 10 < 7 THEN t.parent_id END,
+       now() - a * INTERVAL '1 hour' - INTERVAL '1 day'
+FROM seed_tasks t
+CROSS JOIN generate_series(1, 25) a
+JOIN seed_users c ON c.family_id = t.family_id AND c.n = 1 + a % 3;
+
+CREATE TEMP TABLE seed_wallets ON COMMIT DROP AS
+SELECT gen_random_uuid() AS id, c.id AS child_id FROM seed_users c WHERE c.role = 'CHILD';
+
+INSERT INTO wallets (id, child_id, balance, total_earned, total_spent, created_at, updated_at)
+SELECT id, child_id, 0, 0, 0, now(), now() FROM seed_wallets;
+
+INSERT INTO transactions (id, wallet_id, type, amount, balance_before, balance_after, description,
+                          reference_type, created_at)
+SELECT gen_random_uuid(), w.id, 'CREDIT', 10, 0, 10, 'Crédito plano', 'TASK', now() - x * INTERVAL '1 hour'
+FROM seed_wallets w CROSS JOIN generate_series(1, 50) x;
+
+-- Histórico longo nas carteiras da 'Família plano 1': páginas profundas (cursor no meio de milhares de linhas)
+INSERT INTO transactions (id, wallet_id, type, amount, balance_before, balance_after, description,
+                          reference_type, created_at)
+SELECT gen_random_uuid(), w.id, 'CREDIT', 10, 0, 10, 'Crédito plano', 'TASK', now() - x * INTERVAL '1 minute'
+FROM seed_wallets w
+JOIN seed_users c ON c.id = w.child_id
+JOIN seed_families f ON f.id = c.family_id AND f.n = 1
+CROSS JOIN generate_series(1, 5000) x;
+
+INSERT INTO notifications (id, user_id, type, title, message, is_read, created_at)
+SELECT gen_random_uuid(), u.id, 'TASK_APPROVED', 'Plano', 'Notificação plano', x % 5 <> 0,
+       now() - x * INTERVAL '1 hour'
+FROM seed_users u CROSS JOIN generate_series(1, 25) x;
+
+CREATE TEMP TABLE seed_rewards ON COMMIT DROP AS
+SELECT gen_random_uuid() AS id, p.id AS parent_id, p.family_id
+FROM seed_users p CROSS JOIN generate_series(1, 2)
+WHERE p.role = 'PARENT';
+
+INSERT INTO rewards (id, name, coin_cost, is_active, created_by_user_id, family_id, created_at, updated_at)
+SELECT id, 'Recompensa plano', 50, true, parent_id, family_id, now(), now() FROM seed_rewards;
+
+INSERT INTO redemptions (id, reward_id, child_id, coin_amount, status, requested_at)
+SELECT gen_random_uuid(), r.id, c.id, 50, CASE WHEN x % 20 = 0 THEN 'PENDING' ELSE 'APPROVED' END,
+       now() - x * INTERVAL '1 day'
+FROM seed_rewards r
+JOIN seed_users c ON c.family_id = r.family_id AND c.role = 'CHILD'
+CROSS JOIN generate_series(1, 3) x;
+
+ANALYZE families, users, tasks, task_recurring_targets, task_assignments, wallets, transactions, notifications, rewards, redemptions;